@@ -0,0 +1,39 @@
+package com.xyzbank.atm.atm_management_service.benchmark;
+
+import com.xyzbank.atm.atm_management_service.account.Account;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.exception.CreateAccountException;
+import com.xyzbank.atm.atm_management_service.exception.InvalidAccountException;
+import com.xyzbank.atm.atm_management_service.model.AccountRequestModel;
+import com.xyzbank.atm.atm_management_service.model.CreateAccountRequestModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class AccountCrudServiceBenchmark {
+
+    @Benchmark
+    public Account getOrCreateAccount(AtmContextState state, OperationCounters counters) throws CreateAccountException {
+        String name = state.accountNames[counters.nextAccountIdx(state.accountCount)];
+        return state.accountCrudService.getOrCreateAccount(new CreateAccountRequestModel(name, "", ""));
+    }
+
+    @Benchmark
+    public BigDecimal getBalance(AtmContextState state, OperationCounters counters) throws InvalidAccountException {
+        String name = state.accountNames[counters.nextAccountIdx(state.accountCount)];
+        return state.accountCrudService.getBalance(new AccountRequestModel(name));
+    }
+
+    @Benchmark
+    public List<DebtBalance> getAllDebts(AtmContextState state, OperationCounters counters) throws InvalidAccountException {
+        String name = state.accountNames[counters.nextAccountIdx(state.accountCount)];
+        return state.accountCrudService.getAllDebts(new AccountRequestModel(name));
+    }
+}
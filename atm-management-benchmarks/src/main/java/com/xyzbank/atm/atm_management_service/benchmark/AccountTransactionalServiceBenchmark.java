@@ -0,0 +1,71 @@
+package com.xyzbank.atm.atm_management_service.benchmark;
+
+import com.xyzbank.atm.atm_management_service.model.TransferCommand;
+import com.xyzbank.atm.atm_management_service.model.TransferCommandResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountTransactionalServiceBenchmark {
+
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Param({"100"})
+    public int batchSize;
+
+    @Benchmark
+    public void deposit(AtmContextState state, OperationCounters counters) {
+        Long accountId = state.accountIds[counters.nextAccountIdx(state.accountCount)];
+        try {
+            state.accountTransactionalService.deposit(accountId, AMOUNT, "benchmark");
+        } catch (Exception ex) {
+            counters.failures++;
+        }
+    }
+
+    @Benchmark
+    public void withdraw(AtmContextState state, OperationCounters counters) {
+        Long accountId = state.accountIds[counters.nextAccountIdx(state.accountCount)];
+        try {
+            state.accountTransactionalService.withdraw(accountId, AMOUNT, "benchmark");
+        } catch (Exception ex) {
+            counters.failures++;
+        }
+    }
+
+    @Benchmark
+    public void transfer(AtmContextState state, OperationCounters counters) {
+        int fromIdx = counters.nextAccountIdx(state.accountCount);
+        int toIdx = counters.nextOtherAccountIdx(fromIdx, state.accountCount);
+        try {
+            state.accountTransactionalService.transfer(state.accountIds[fromIdx], state.accountIds[toIdx], AMOUNT, "benchmark");
+        } catch (Exception ex) {
+            counters.failures++;
+        }
+    }
+
+    /**
+     * One operation is a whole batch of {@code batchSize} random transfers; failed commands are counted as failures.
+     */
+    @Benchmark
+    public List<TransferCommandResult> transferBatch(AtmContextState state, OperationCounters counters) {
+        List<TransferCommand> transferCommands = new ArrayList<>(batchSize);
+        for (int idx = 0; idx < batchSize; idx++) {
+            int fromIdx = counters.nextAccountIdx(state.accountCount);
+            int toIdx = counters.nextOtherAccountIdx(fromIdx, state.accountCount);
+            transferCommands.add(new TransferCommand(state.accountIds[fromIdx], state.accountIds[toIdx], AMOUNT, "benchmark"));
+        }
+        List<TransferCommandResult> results = state.accountTransactionalService.transferBatch(transferCommands);
+        counters.failures += results.stream().filter(result -> !result.isSuccess()).count();
+        return results;
+    }
+}
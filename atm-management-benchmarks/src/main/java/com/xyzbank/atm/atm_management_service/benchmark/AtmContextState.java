@@ -0,0 +1,104 @@
+package com.xyzbank.atm.atm_management_service.benchmark;
+
+import com.xyzbank.atm.atm_management_service.account.Account;
+import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.model.CreateAccountRequestModel;
+import com.xyzbank.atm.atm_management_service.service.AccountCrudService;
+import com.xyzbank.atm.atm_management_service.service.AccountTransactionalService;
+import com.xyzbank.atm.atm_management_service.service.DebtRestructuringScheduler;
+import com.xyzbank.atm.atm_management_service.service.DebtRestructuringService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Starts the real Spring context on a private in-memory H2 database and seeds it with {@code accountCount} funded
+ * accounts and {@code debtGraphSize} random pending debts between them.
+ */
+@State(Scope.Benchmark)
+public class AtmContextState {
+
+    public static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000_000_000L);
+
+    @Param({"1000"})
+    public int accountCount;
+
+    @Param({"100"})
+    public int debtGraphSize;
+
+    @Param({"DELTA"})
+    public String updateMode;
+
+    @Param({"OPTIMISTIC"})
+    public String concurrencyMode;
+
+    public AccountCrudService accountCrudService;
+
+    public AccountTransactionalService accountTransactionalService;
+
+    public DebtRestructuringService debtRestructuringService;
+
+    public DebtRestructuringScheduler debtRestructuringScheduler;
+
+    public DebtBalanceDao debtBalanceDao;
+
+    public Long[] accountIds;
+
+    public String[] accountNames;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:atm-benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "spring.jpa.properties.hibernate.order_updates=true",
+                        "atm.account.update-mode=" + updateMode,
+                        "atm.account.concurrency-mode=" + concurrencyMode)
+                .run();
+        accountCrudService = context.getBean(AccountCrudService.class);
+        accountTransactionalService = context.getBean(AccountTransactionalService.class);
+        debtRestructuringService = context.getBean(DebtRestructuringService.class);
+        debtRestructuringScheduler = context.getBean(DebtRestructuringScheduler.class);
+        debtBalanceDao = context.getBean(DebtBalanceDao.class);
+
+        accountIds = new Long[accountCount];
+        accountNames = new String[accountCount];
+        for (int idx = 0; idx < accountCount; idx++) {
+            accountNames[idx] = "benchmark-user-" + idx;
+            Account account = accountCrudService.getOrCreateAccount(new CreateAccountRequestModel(accountNames[idx], "", ""));
+            accountIds[idx] = account.getAccountId();
+            accountTransactionalService.deposit(account.getAccountId(), INITIAL_BALANCE, "benchmark");
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<DebtBalance> debtBalances = new ArrayList<>(debtGraphSize);
+        for (int idx = 0; idx < debtGraphSize; idx++) {
+            int fromIdx = random.nextInt(accountCount);
+            int toIdx = (fromIdx + 1 + random.nextInt(accountCount - 1)) % accountCount;
+            debtBalances.add(DebtBalance.buildDebtBalanceObject(accountIds[fromIdx], accountIds[toIdx], BigDecimal.valueOf(1 + random.nextInt(100))));
+        }
+        debtBalanceDao.saveAllAndFlush(debtBalances);
+        debtRestructuringScheduler.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
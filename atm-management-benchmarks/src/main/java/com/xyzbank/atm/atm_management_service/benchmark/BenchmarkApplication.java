@@ -0,0 +1,17 @@
+package com.xyzbank.atm.atm_management_service.benchmark;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+/**
+ * Spring Boot configuration for the benchmarks. It wires the same core services as the CLI, without the command line
+ * runner, so the benchmarks drive the service layer directly.
+ */
+@SpringBootApplication(scanBasePackages = "com.xyzbank.atm.atm_management_service")
+@EnableJpaRepositories(basePackages = "com.xyzbank.atm.atm_management_service.dao")
+@EntityScan(basePackages = "com.xyzbank.atm.atm_management_service")
+@EnableTransactionManagement
+public class BenchmarkApplication {
+}
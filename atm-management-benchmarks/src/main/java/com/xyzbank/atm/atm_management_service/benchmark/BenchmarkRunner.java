@@ -0,0 +1,27 @@
+package com.xyzbank.atm.atm_management_service.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks once per thread count listed in the {@code bench.threads} system property (default
+ * {@code 1}). All other arguments are regular JMH command line options, e.g. {@code -p accountCount=100,10000}.
+ * Results are written as JSON to {@code target/jmh-result-t<threads>.json}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        for (String threads : System.getProperty("bench.threads", "1").split(",")) {
+            int threadCount = Integer.parseInt(threads.trim());
+            new Runner(new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .threads(threadCount)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-result-t" + threadCount + ".json")
+                    .build()).run();
+        }
+    }
+}
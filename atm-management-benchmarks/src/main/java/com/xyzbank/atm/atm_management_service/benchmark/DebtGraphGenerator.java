@@ -0,0 +1,96 @@
+package com.xyzbank.atm.atm_management_service.benchmark;
+
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.model.SettlementEdge;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Generates synthetic debt graphs over account ids {@code 1..accountCount}. Every edge means its from account owes
+ * the amount to its to account. The same shape, size and seed always produce the same graph.
+ */
+public final class DebtGraphGenerator {
+
+    private static final int CLUSTER_SIZE = 10;
+
+    private static final int MAX_AMOUNT = 1_000;
+
+    private DebtGraphGenerator() {
+    }
+
+    public static List<SettlementEdge> generate(DebtGraphShape shape, int accountCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<SettlementEdge> debts = new ArrayList<>();
+        switch (shape) {
+            case RANDOM -> {
+                for (int idx = 0; idx < 2 * accountCount; idx++) {
+                    int from = random.nextInt(accountCount);
+                    addDebt(debts, random, from, otherAccount(random, from, 0, accountCount));
+                }
+            }
+            case STAR -> {
+                for (int from = 1; from < accountCount; from++) {
+                    addDebt(debts, random, from, 0);
+                }
+            }
+            case CHAIN -> {
+                for (int from = 0; from < accountCount - 1; from++) {
+                    addDebt(debts, random, from, from + 1);
+                }
+            }
+            case CLUSTERED -> {
+                for (int clusterStart = 0; clusterStart < accountCount; clusterStart += CLUSTER_SIZE) {
+                    int clusterSize = Math.min(CLUSTER_SIZE, accountCount - clusterStart);
+                    for (int idx = 0; clusterSize > 1 && idx < 2 * clusterSize; idx++) {
+                        int from = clusterStart + random.nextInt(clusterSize);
+                        addDebt(debts, random, from, otherAccount(random, from, clusterStart, clusterSize));
+                    }
+                    // a few bridges so that some clusters end up in the same group
+                    if (clusterStart > 0 && random.nextInt(CLUSTER_SIZE) == 0) {
+                        addDebt(debts, random, clusterStart, random.nextInt(clusterStart));
+                    }
+                }
+            }
+            case POWER_LAW -> {
+                // preferential attachment: accounts with many debts are more likely to get new ones
+                List<Integer> endpoints = new ArrayList<>();
+                for (int from = 1; from < accountCount; from++) {
+                    int to = endpoints.isEmpty() ? 0 : endpoints.get(random.nextInt(endpoints.size()));
+                    addDebt(debts, random, from, to);
+                    endpoints.add(from);
+                    endpoints.add(to);
+                }
+                for (int idx = 0; idx < accountCount && accountCount > 1; idx++) {
+                    int from = endpoints.get(random.nextInt(endpoints.size()));
+                    int to = endpoints.get(random.nextInt(endpoints.size()));
+                    if (from != to) addDebt(debts, random, from, to);
+                }
+            }
+        }
+        return debts;
+    }
+
+    public static Map<Long, BigDecimal> toNetBalances(List<SettlementEdge> debts) {
+        Map<Long, BigDecimal> netBalances = new LinkedHashMap<>();
+        debts.forEach(e -> {
+            netBalances.merge(e.fromAccountId(), e.amount(), BigDecimal::add);
+            netBalances.merge(e.toAccountId(), e.amount().negate(), BigDecimal::add);
+        });
+        return netBalances;
+    }
+
+    public static List<DebtBalance> toDebtBalances(List<SettlementEdge> debts) {
+        return debts.stream()
+                .map(e -> DebtBalance.buildDebtBalanceObject(e.fromAccountId(), e.toAccountId(), e.amount()))
+                .toList();
+    }
+
+    private static void addDebt(List<SettlementEdge> debts, SplittableRandom random, int from, int to) {
+        debts.add(new SettlementEdge(from + 1L, to + 1L, BigDecimal.valueOf(1 + random.nextInt(MAX_AMOUNT))));
+    }
+
+    private static int otherAccount(SplittableRandom random, int from, int rangeStart, int rangeSize) {
+        return rangeStart + (from - rangeStart + 1 + random.nextInt(rangeSize - 1)) % rangeSize;
+    }
+}
@@ -0,0 +1,9 @@
+package com.xyzbank.atm.atm_management_service.benchmark;
+
+public enum DebtGraphShape {
+    RANDOM,
+    STAR,
+    CHAIN,
+    CLUSTERED,
+    POWER_LAW
+}
@@ -0,0 +1,44 @@
+package com.xyzbank.atm.atm_management_service.benchmark;
+
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one restructuring pass after a single new debt was added to the seeded debt graph, both for the group
+ * touched by the new debt and for the whole table. Adding the debt is not part of the measurement.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class DebtRestructuringServiceBenchmark {
+
+    @State(Scope.Thread)
+    public static class NewDebt {
+
+        List<Long> touchedAccountIds;
+
+        @Setup(Level.Invocation)
+        public void addDebt(AtmContextState state, OperationCounters counters) {
+            int fromIdx = counters.nextAccountIdx(state.accountCount);
+            int toIdx = counters.nextOtherAccountIdx(fromIdx, state.accountCount);
+            state.debtBalanceDao.saveAndFlush(DebtBalance.buildDebtBalanceObject(state.accountIds[fromIdx], state.accountIds[toIdx], BigDecimal.TEN));
+            touchedAccountIds = List.of(state.accountIds[fromIdx], state.accountIds[toIdx]);
+        }
+    }
+
+    @Benchmark
+    public void restructureTouchedGroup(AtmContextState state, NewDebt newDebt) {
+        state.debtRestructuringService.restructureDebt(newDebt.touchedAccountIds);
+    }
+
+    @Benchmark
+    public void restructureAll(AtmContextState state, NewDebt newDebt) {
+        state.debtRestructuringService.restructureDebt();
+    }
+}
@@ -0,0 +1,91 @@
+package com.xyzbank.atm.atm_management_service.benchmark;
+
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.model.SettlementEdge;
+import com.xyzbank.atm.atm_management_service.service.impl.DebtSettlementEngineImpl;
+import com.xyzbank.atm.atm_management_service.service.impl.ExactDebtSettlementSolver;
+import com.xyzbank.atm.atm_management_service.service.impl.GreedyDebtSettlementSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the debt solvers in isolation, without Spring or a database, against generated debt graphs of growing
+ * size. Run with {@code -prof gc} to also get the allocation rate. The {@code transfers} counter reports the number of
+ * settlement transfers the solver produced for the graph. The exact solver and the engine both run with the
+ * {@code exactTimeBudgetMs} budget, and the engine settles groups larger than {@code exactMaxAccounts} greedily.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DebtSettlementSolverBenchmark {
+
+    public enum Solver {
+        EXACT,
+        GREEDY,
+        ENGINE
+    }
+
+    @Param({"RANDOM", "STAR", "CHAIN", "CLUSTERED", "POWER_LAW"})
+    public DebtGraphShape shape;
+
+    @Param({"8", "12", "16", "1000", "100000"})
+    public int accountCount;
+
+    @Param({"EXACT", "GREEDY", "ENGINE"})
+    public Solver solver;
+
+    @Param({"1000"})
+    public long exactTimeBudgetMs;
+
+    @Param({"10"})
+    public int exactMaxAccounts;
+
+    private Map<Long, BigDecimal> netBalances;
+
+    private List<DebtBalance> debtBalances;
+
+    private ExactDebtSettlementSolver exactSolver;
+
+    private GreedyDebtSettlementSolver greedySolver;
+
+    private DebtSettlementEngineImpl engine;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Transfers {
+
+        long lastTransfers;
+
+        public long transfers() {
+            return lastTransfers;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<SettlementEdge> debts = DebtGraphGenerator.generate(shape, accountCount, 42);
+        netBalances = DebtGraphGenerator.toNetBalances(debts);
+        debtBalances = DebtGraphGenerator.toDebtBalances(debts);
+        exactSolver = new ExactDebtSettlementSolver(TimeUnit.MILLISECONDS.toNanos(exactTimeBudgetMs));
+        greedySolver = new GreedyDebtSettlementSolver();
+        engine = new DebtSettlementEngineImpl(exactMaxAccounts, exactTimeBudgetMs);
+    }
+
+    @Benchmark
+    public List<SettlementEdge> solve(Transfers transfers) {
+        List<SettlementEdge> result = switch (solver) {
+            case EXACT -> exactSolver.solve(netBalances);
+            case GREEDY -> greedySolver.solve(netBalances);
+            case ENGINE -> engine.settle(debtBalances);
+        };
+        transfers.lastTransfers = result.size();
+        return result;
+    }
+}
@@ -0,0 +1,36 @@
+package com.xyzbank.atm.atm_management_service.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+
+/**
+ * Per-thread account picker and failure counter. Operations that fail, for example on an optimistic lock conflict,
+ * are counted instead of aborting the benchmark.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class OperationCounters {
+
+    public long failures;
+
+    private SplittableRandom random;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        random = new SplittableRandom(Thread.currentThread().getId());
+        failures = 0;
+    }
+
+    int nextAccountIdx(int accountCount) {
+        return random.nextInt(accountCount);
+    }
+
+    int nextOtherAccountIdx(int accountIdx, int accountCount) {
+        return (accountIdx + 1 + random.nextInt(accountCount - 1)) % accountCount;
+    }
+}
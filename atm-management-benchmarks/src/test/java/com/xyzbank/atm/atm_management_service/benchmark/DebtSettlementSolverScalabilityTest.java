@@ -0,0 +1,45 @@
+package com.xyzbank.atm.atm_management_service.benchmark;
+
+import com.xyzbank.atm.atm_management_service.model.SettlementEdge;
+import com.xyzbank.atm.atm_management_service.service.impl.DebtSettlementEngineImpl;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gate for the settlement engine: every generated graph shape with 100k indebted accounts must be settled correctly,
+ * with at most one transfer per account, well within a time limit that leaves room for slow CI machines.
+ */
+class DebtSettlementSolverScalabilityTest {
+
+    private static final int ACCOUNT_COUNT = 100_000;
+
+    private static final Duration TIME_LIMIT = Duration.ofSeconds(10);
+
+    private final DebtSettlementEngineImpl engine = new DebtSettlementEngineImpl(10, 50);
+
+    @ParameterizedTest
+    @EnumSource(DebtGraphShape.class)
+    void testSettle_largeGraph(DebtGraphShape shape) {
+        List<SettlementEdge> debts = DebtGraphGenerator.generate(shape, ACCOUNT_COUNT, 42);
+        Map<Long, BigDecimal> netBalances = DebtGraphGenerator.toNetBalances(debts);
+
+        List<SettlementEdge> result = assertTimeoutPreemptively(TIME_LIMIT, () -> engine.settle(DebtGraphGenerator.toDebtBalances(debts)));
+
+        Map<Long, BigDecimal> remaining = new HashMap<>(netBalances);
+        result.forEach(e -> {
+            assertTrue(e.amount().signum() > 0);
+            remaining.merge(e.fromAccountId(), e.amount().negate(), BigDecimal::add);
+            remaining.merge(e.toAccountId(), e.amount(), BigDecimal::add);
+        });
+        remaining.values().forEach(balance -> assertEquals(0, balance.signum()));
+        assertTrue(result.size() < ACCOUNT_COUNT);
+    }
+}
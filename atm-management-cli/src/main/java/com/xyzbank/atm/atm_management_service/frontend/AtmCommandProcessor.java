@@ -0,0 +1,259 @@
+package com.xyzbank.atm.atm_management_service.frontend;
+
+import com.xyzbank.atm.atm_management_service.account.Account;
+import com.xyzbank.atm.atm_management_service.exception.*;
+import com.xyzbank.atm.atm_management_service.model.AccountRequestModel;
+import com.xyzbank.atm.atm_management_service.model.AccountSummary;
+import com.xyzbank.atm.atm_management_service.model.CreateAccountRequestModel;
+import com.xyzbank.atm.atm_management_service.model.DebtDetail;
+import com.xyzbank.atm.atm_management_service.model.DepositResult;
+import com.xyzbank.atm.atm_management_service.model.TransferResult;
+import com.xyzbank.atm.atm_management_service.model.WithdrawResult;
+import com.xyzbank.atm.atm_management_service.service.AccountCrudService;
+import com.xyzbank.atm.atm_management_service.service.AccountTransactionalService;
+import com.xyzbank.atm.atm_management_service.service.DebtRestructuringScheduler;
+import com.xyzbank.atm.atm_management_service.service.impl.UserService;
+import com.xyzbank.atm.atm_management_service.session.SessionManager;
+import com.xyzbank.atm.atm_management_service.session.SessionState;
+import com.xyzbank.atm.atm_management_service.user.User;
+import com.xyzbank.atm.atm_management_service.utils.CommandLineInputText;
+import com.xyzbank.atm.atm_management_service.utils.CommandTokenizer;
+import com.xyzbank.atm.atm_management_service.utils.InvalidStdInputException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Runs the commands of the ATM line protocol for a session. It keeps no state of its own, so one instance serves the
+ * console and every network session at the same time.
+ */
+@Component("atmCommandProcessor")
+@Slf4j
+public class AtmCommandProcessor {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountCrudService accountCrudService;
+
+    @Autowired
+    private AccountTransactionalService accountTransactionalService;
+
+    @Autowired
+    private DebtRestructuringScheduler debtRestructuringScheduler;
+
+    @Autowired
+    private SessionManager sessionManager;
+
+    @Value("${atm.frontend.mode:CONSOLE}")
+    private FrontEndMode frontEndMode = FrontEndMode.CONSOLE;
+
+    /**
+     * Runs one command line and writes its replies to the session.
+     *
+     * @param session      the session the command was entered on.
+     * @param inputCommand the command line, without the line terminator.
+     * @return how the command ended.
+     */
+    public CommandStatus process(AtmSession session, String inputCommand) {
+        try {
+            return processCmdLineInput(session, inputCommand);
+        } catch (Exception ex) {
+            log.error("Error occurred ine executing the command: {} with exception: ", inputCommand, ex);
+            session.println(ex.getMessage());
+            return CommandStatus.FAILED;
+        }
+    }
+
+    /**
+     * Closes the session logged in on a terminal that went away.
+     */
+    public void closeSession(AtmSession session) {
+        Long sessionId = session.getSessionId();
+        if (Objects.nonNull(sessionId)) sessionManager.closeSession(sessionId);
+        session.setSessionId(null);
+    }
+
+    private CommandStatus processCmdLineInput(AtmSession session, String inputCommand) {
+        try {
+            String[] inputStrArr = CommandTokenizer.tokenize(inputCommand);
+            if (inputStrArr.length == 0) throw new InvalidStdInputException();
+            String commandName = inputStrArr[0].toLowerCase();
+            switch (inputStrArr[0]) {
+                case "login": {
+                    return performLoginOperation(session, inputStrArr);
+                }
+                case "deposit": {
+                    return performDepositOperation(session, inputStrArr);
+                }
+                case "withdraw": {
+                    return performWithdrawOperation(session, inputStrArr);
+                }
+                case "transfer": {
+                    return performTransferOperation(session, inputStrArr);
+                }
+                case "logout": {
+                    Optional<SessionState> currSession = Optional.ofNullable(session.getSessionId()).flatMap(sessionManager::closeSession);
+                    session.setSessionId(null);
+                    if (currSession.isEmpty()) {
+                        session.println("No User is logged in!");
+                    } else {
+                        session.println(String.format(CommandLineInputText.EXIT_MESSAGE, currSession.get().userName()));
+                    }
+                    return CommandStatus.SUCCEEDED;
+                }
+                default: {
+                    session.println("You have entered invalid Command!");
+                    return CommandStatus.REJECTED;
+                }
+            }
+        } catch (InvalidStdInputException ex) {
+            session.println(ex.getMessage());
+            return CommandStatus.REJECTED;
+        }
+    }
+
+    private CommandStatus performWithdrawOperation(AtmSession session, String[] inputStrArr) throws InvalidStdInputException {
+        SessionState currSession = getLoggedInSession(session);
+        if (inputStrArr.length != 2) throw new InvalidStdInputException();
+        try {
+            BigDecimal amount = new BigDecimal(inputStrArr[1]);
+            try {
+                WithdrawResult withdrawResult = accountTransactionalService.withdraw(currSession.accountId(), amount, "");
+                displayBalanceAndDebts(session, currSession, withdrawResult.balance());
+                return CommandStatus.SUCCEEDED;
+            } catch (WithdrawOperationException ex) {
+                session.println(ex.getMessage());
+                log.error("Error occurred in deposit operation: {} with inputStrArr: ", Arrays.toString(inputStrArr), ex);
+                return CommandStatus.FAILED;
+            }
+        } catch (NumberFormatException ex) {
+            throw new InvalidStdInputException();
+        }
+    }
+
+    private CommandStatus performLoginOperation(AtmSession session, String[] inputStrArr) throws InvalidStdInputException {
+        if (inputStrArr.length != 2 || !StringUtils.hasLength(inputStrArr[1])) {
+            throw new InvalidStdInputException();
+        }
+        try {
+            Account account = accountCrudService.getOrCreateAccount(new CreateAccountRequestModel(inputStrArr[1], "", ""));
+            String userName = userService.getUser(account.getUserId()).map(User::getName).orElse(inputStrArr[1]);
+            closeSession(session);
+            SessionState currSession = new SessionState(account.getAccountId(), userName);
+            session.setSessionId(sessionManager.openSession(currSession.accountId(), currSession.userName()));
+            session.println(String.format(CommandLineInputText.WELCOME_USER_MESSAGE, inputStrArr[1]));
+            displaySummary(session, currSession);
+            return CommandStatus.SUCCEEDED;
+        } catch (CreateAccountException ex) {
+            log.error("Error occurred in getOrCreateAccount: {} with inputStrArr: ", Arrays.toString(inputStrArr), ex);
+            return CommandStatus.FAILED;
+        }
+    }
+
+    private CommandStatus performDepositOperation(AtmSession session, String[] inputStrArr) throws InvalidStdInputException {
+        SessionState currSession = getLoggedInSession(session);
+        if (inputStrArr.length != 2) throw new InvalidStdInputException();
+        try {
+            BigDecimal amount = new BigDecimal(inputStrArr[1]);
+            try {
+                DepositResult depositResult = accountTransactionalService.deposit(currSession.accountId(), amount, "");
+                depositResult.debtSettlements().stream()
+                        .filter(settlement -> !settlement.offsetAgainstDebt())
+                        .forEach(settlement -> session.println(String.format(CommandLineInputText.TRANSFERRED_MESSAGE, settlement.transferredAmount(), settlement.toUserName())));
+                displayBalanceAndDebts(session, currSession, depositResult.balance());
+                return CommandStatus.SUCCEEDED;
+            } catch (DepositOperationException ex) {
+                log.error("Error occurred in deposit operation: {} with inputStrArr: ", Arrays.toString(inputStrArr), ex);
+                return CommandStatus.FAILED;
+            }
+        } catch (NumberFormatException ex) {
+            throw new InvalidStdInputException();
+        }
+    }
+
+    private CommandStatus performTransferOperation(AtmSession session, String[] inputStrArr) throws InvalidStdInputException {
+        SessionState currSession = getLoggedInSession(session);
+        if (inputStrArr.length != 3 || !StringUtils.hasLength(inputStrArr[1])) throw new InvalidStdInputException();
+        try {
+            Account toAccount = accountCrudService.getOrCreateAccount(new CreateAccountRequestModel(inputStrArr[1], "", ""));
+            if ((long) currSession.accountId() == toAccount.getAccountId())
+                throw new InvalidStdInputException("Cannot transfer to same account");
+            try {
+                BigDecimal amount = new BigDecimal(inputStrArr[2]);
+                TransferResult transferResult = accountTransactionalService.transfer(currSession.accountId(), toAccount.getAccountId(), amount, "transfer");
+                if (!transferResult.offsetAgainstDebt()) {
+                    session.println(String.format(CommandLineInputText.TRANSFERRED_MESSAGE, transferResult.transferredAmount(), inputStrArr[1]));
+                }
+                displayBalanceAndDebts(session, currSession, transferResult.fromBalance());
+                return CommandStatus.SUCCEEDED;
+            } catch (NumberFormatException ex) {
+                throw new InvalidStdInputException();
+            }
+        } catch (InvalidAccountException | TransferOperationException | CreateAccountException ex) {
+            log.error("Error occurred in transfer operation: {} with inputStrArr: ", Arrays.toString(inputStrArr), ex);
+            return CommandStatus.FAILED;
+        }
+    }
+
+    /**
+     * Finds the session logged in on the terminal. A session that expired is dropped from the terminal.
+     */
+    private SessionState getLoggedInSession(AtmSession session) throws InvalidStdInputException {
+        Long sessionId = session.getSessionId();
+        if (Objects.isNull(sessionId)) throw new InvalidStdInputException(CommandLineInputText.LOGIN_WARNING_MESSAGE);
+        Optional<SessionState> currSession = sessionManager.getSession(sessionId);
+        if (currSession.isEmpty()) {
+            session.setSessionId(null);
+            throw new InvalidStdInputException(CommandLineInputText.SESSION_EXPIRED_MESSAGE);
+        }
+        return currSession.get();
+    }
+
+    private void displaySummary(AtmSession session, SessionState currSession) {
+        try {
+            awaitDebtRestructuring(session);
+            AccountSummary accountSummary = accountCrudService.getAccountSummary(new AccountRequestModel(currSession.userName()));
+            session.println(String.format(CommandLineInputText.BALANCE_MESSAGE, accountSummary.balance()));
+            showDebts(session, accountSummary.accountId(), accountSummary.debts());
+        } catch (InvalidAccountException ex) {
+            log.error("Error occurred in displaying summary of user: {} : ", currSession.userName(), ex);
+        }
+    }
+
+    /**
+     * Shows the balance an operation returned, so only the debts are read again.
+     */
+    private void displayBalanceAndDebts(AtmSession session, SessionState currSession, BigDecimal balance) {
+        session.println(String.format(CommandLineInputText.BALANCE_MESSAGE, balance));
+        awaitDebtRestructuring(session);
+        Long accountId = currSession.accountId();
+        showDebts(session, accountId, accountCrudService.getDebtDetails(accountId));
+    }
+
+    /**
+     * The console waits for the pending restructuring pass so the debts it shows are already restructured. Network
+     * sessions do not: a flush waits for the pass of every session on the single restructuring thread, so they show
+     * the debts as committed, which the pass only rewrites into fewer debts of the same net amounts. Neither does a
+     * batch session, which flushes once at the end of its script.
+     */
+    private void awaitDebtRestructuring(AtmSession session) {
+        if (frontEndMode == FrontEndMode.CONSOLE && session.isAwaitDebtRestructuring()) debtRestructuringScheduler.flush();
+    }
+
+    private void showDebts(AtmSession session, Long accountId, List<DebtDetail> debtDetailList) {
+        debtDetailList.forEach(e -> {
+            if (e.fromAccountId().equals(accountId)) {
+                session.println(String.format(CommandLineInputText.OWED_TO_MESSAGE, e.outStandingBalance().abs(), e.toUserName()));
+            } else {
+                session.println(String.format(CommandLineInputText.OWED_FROM_MESSAGE, e.outStandingBalance().abs(), e.fromUserName()));
+            }
+        });
+    }
+}
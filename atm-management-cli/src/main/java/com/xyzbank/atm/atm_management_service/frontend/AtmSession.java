@@ -0,0 +1,30 @@
+package com.xyzbank.atm.atm_management_service.frontend;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.function.Consumer;
+
+/**
+ * One ATM terminal: the id of the session logged in on it, if any, where the replies to its commands are written and
+ * whether it waits for the debts to be restructured before showing them.
+ */
+@Getter
+public class AtmSession {
+
+    @Setter
+    private volatile Long sessionId;
+
+    private final Consumer<String> output;
+
+    @Setter
+    private boolean awaitDebtRestructuring = true;
+
+    public AtmSession(Consumer<String> output) {
+        this.output = output;
+    }
+
+    public void println(String line) {
+        output.accept(line);
+    }
+}
@@ -0,0 +1,289 @@
+package com.xyzbank.atm.atm_management_service.frontend;
+
+import com.xyzbank.atm.atm_management_service.utils.CommandLineInputText;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the ATM line protocol over TCP, one {@link AtmSession} per connection. A single selector thread accepts the
+ * connections and moves their bytes, and the commands run on a fixed pool of workers.
+ * <p>
+ * A session reads into a line buffer of {@code maxLineLength} bytes and runs one command at a time. It is not read
+ * while its command runs or while its replies are written, so a terminal that sends faster than it is served waits in
+ * its socket buffer, and the memory held per session stays bounded.
+ */
+@Component("atmTcpServer")
+@Slf4j
+public class AtmTcpServer {
+
+    static final String LINE_TOO_LONG_MESSAGE = "Command is too long!";
+
+    private final AtmCommandProcessor atmCommandProcessor;
+
+    private final int port;
+
+    private final int workerThreads;
+
+    private final int maxLineLength;
+
+    private final int maxSessions;
+
+    private final Queue<TcpSession> completedSessions = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger openSessions = new AtomicInteger();
+
+    private Selector selector;
+
+    private ServerSocketChannel serverChannel;
+
+    private ExecutorService workerPool;
+
+    private Thread selectorThread;
+
+    private volatile boolean running;
+
+    public AtmTcpServer(AtmCommandProcessor atmCommandProcessor,
+                        @Value("${atm.frontend.tcp.port:7070}") int port,
+                        @Value("${atm.frontend.tcp.worker-threads:16}") int workerThreads,
+                        @Value("${atm.frontend.tcp.max-line-length:256}") int maxLineLength,
+                        @Value("${atm.frontend.tcp.max-sessions:10000}") int maxSessions) {
+        this.atmCommandProcessor = atmCommandProcessor;
+        this.port = port;
+        this.workerThreads = workerThreads;
+        this.maxLineLength = maxLineLength;
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Binds the port and starts serving on a non-daemon selector thread, which keeps the application running until
+     * {@link #stop()}.
+     */
+    public synchronized void start() throws IOException {
+        if (running) return;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        AtomicInteger workerCount = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "atm-tcp-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        selectorThread = new Thread(this::runSelector, "atm-tcp-selector");
+        selectorThread.start();
+        log.info("ATM TCP front-end started, port: {}, workerThreads: {}, maxSessions: {}", getPort(), workerThreads, maxSessions);
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) return;
+        running = false;
+        selector.wakeup();
+        selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+        workerPool.shutdownNow();
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    public int getOpenSessions() {
+        return openSessions.get();
+    }
+
+    private void runSelector() {
+        try {
+            while (running) {
+                selector.select();
+                TcpSession completedSession;
+                while ((completedSession = completedSessions.poll()) != null) {
+                    completedSession.commandCompleted();
+                }
+                Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    handle(key);
+                }
+            }
+        } catch (IOException ex) {
+            log.error("Error in ATM TCP front-end selector", ex);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof TcpSession session) session.close();
+            }
+            try {
+                selector.close();
+                serverChannel.close();
+            } catch (IOException ex) {
+                log.error("Error in closing ATM TCP front-end", ex);
+            }
+            log.info("ATM TCP front-end stopped");
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) return;
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        TcpSession session = (TcpSession) key.attachment();
+        try {
+            if (key.isReadable()) session.read();
+            if (key.isValid() && key.isWritable()) session.write();
+        } catch (IOException | CancelledKeyException ex) {
+            log.debug("ATM TCP session closed by the terminal: {}", ex.getMessage());
+            session.close();
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) return;
+            if (openSessions.get() >= maxSessions) {
+                log.warn("ATM TCP connection refused, openSessions: {}", openSessions.get());
+                channel.close();
+                return;
+            }
+            channel.configureBlocking(false);
+            TcpSession session = new TcpSession(channel, channel.register(selector, 0));
+            openSessions.incrementAndGet();
+            session.queueReply(String.format(CommandLineInputText.WELCOME_MESSAGE) + "\n");
+        } catch (IOException ex) {
+            log.error("Error in accepting ATM TCP connection", ex);
+        }
+    }
+
+    /**
+     * The state of one connection. Everything but {@link #runCommand} runs on the selector thread; the replies a
+     * command writes are handed back through {@code completedSessions}.
+     */
+    private final class TcpSession {
+
+        private final SocketChannel channel;
+
+        private final SelectionKey key;
+
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(maxLineLength);
+
+        private final StringBuilder replies = new StringBuilder();
+
+        private final AtmSession atmSession = new AtmSession(line -> replies.append(line).append('\n'));
+
+        private ByteBuffer writeBuffer;
+
+        private boolean closeAfterWrite;
+
+        private boolean closed;
+
+        private TcpSession(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            key.attach(this);
+        }
+
+        private void read() throws IOException {
+            if (channel.read(readBuffer) < 0) {
+                close();
+                return;
+            }
+            dispatchNextLine();
+        }
+
+        private void write() throws IOException {
+            channel.write(writeBuffer);
+            if (writeBuffer.hasRemaining()) return;
+            writeBuffer = null;
+            if (closeAfterWrite) {
+                close();
+                return;
+            }
+            dispatchNextLine();
+        }
+
+        /**
+         * Runs the next buffered line, if a whole one has arrived, or goes back to reading.
+         */
+        private void dispatchNextLine() {
+            String line = pollLine();
+            if (line != null) {
+                key.interestOps(0);
+                workerPool.execute(() -> runCommand(line));
+            } else if (!readBuffer.hasRemaining()) {
+                closeAfterWrite = true;
+                queueReply(LINE_TOO_LONG_MESSAGE + "\n");
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private String pollLine() {
+            for (int idx = 0; idx < readBuffer.position(); idx++) {
+                if (readBuffer.get(idx) == '\n') {
+                    byte[] line = new byte[idx];
+                    readBuffer.flip();
+                    readBuffer.get(line);
+                    readBuffer.get();
+                    readBuffer.compact();
+                    int length = line.length > 0 && line[line.length - 1] == '\r' ? line.length - 1 : line.length;
+                    return new String(line, 0, length, StandardCharsets.UTF_8);
+                }
+            }
+            return null;
+        }
+
+        private void runCommand(String line) {
+            try {
+                atmCommandProcessor.process(atmSession, line);
+            } finally {
+                completedSessions.add(this);
+                selector.wakeup();
+            }
+        }
+
+        private void commandCompleted() {
+            String reply = replies.toString();
+            replies.setLength(0);
+            if (!closed) queueReply(reply);
+        }
+
+        private void queueReply(String reply) {
+            if (reply.isEmpty()) {
+                dispatchNextLine();
+                return;
+            }
+            writeBuffer = ByteBuffer.wrap(reply.getBytes(StandardCharsets.UTF_8));
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+
+        private void close() {
+            if (closed) return;
+            closed = true;
+            openSessions.decrementAndGet();
+            atmCommandProcessor.closeSession(atmSession);
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                log.debug("Error in closing ATM TCP session", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.xyzbank.atm.atm_management_service.frontend;
+
+import com.xyzbank.atm.atm_management_service.service.DebtRestructuringScheduler;
+import com.xyzbank.atm.atm_management_service.utils.LatencyHistogram;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * Runs a script of commands through the same {@link AtmCommandProcessor} as the console, as one session, and measures
+ * it. The script is streamed line by line and the replies go to a buffered writer, or nowhere, so a run of millions of
+ * commands holds no more than one line of input. The debts a command shows are not waited for to be restructured, the
+ * pending restructuring is flushed once at the end of the script.
+ */
+@Component("batchCommandRunner")
+@Slf4j
+public class BatchCommandRunner {
+
+    @Autowired
+    private AtmCommandProcessor atmCommandProcessor;
+
+    @Autowired
+    private DebtRestructuringScheduler debtRestructuringScheduler;
+
+    /**
+     * Runs every non-blank line of the input as a command.
+     *
+     * @param input  the commands, one per line.
+     * @param output where the replies are written, or null to drop them.
+     * @return the counts and latencies of the commands.
+     */
+    public BatchSummary run(BufferedReader input, Writer output) throws IOException {
+        AtmSession session = new AtmSession(Objects.isNull(output) ? line -> {
+        } : line -> writeLine(output, line));
+        session.setAwaitDebtRestructuring(false);
+        LatencyHistogram latencies = new LatencyHistogram();
+        long[] statusCounts = new long[CommandStatus.values().length];
+        long startNanos = System.nanoTime();
+        try {
+            String line;
+            while ((line = input.readLine()) != null) {
+                if (line.isBlank()) continue;
+                long commandStartNanos = System.nanoTime();
+                CommandStatus status = atmCommandProcessor.process(session, line);
+                latencies.record(System.nanoTime() - commandStartNanos);
+                statusCounts[status.ordinal()]++;
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            atmCommandProcessor.closeSession(session);
+        }
+        debtRestructuringScheduler.flush();
+        if (Objects.nonNull(output)) output.flush();
+        BatchSummary summary = new BatchSummary(statusCounts[CommandStatus.SUCCEEDED.ordinal()],
+                statusCounts[CommandStatus.REJECTED.ordinal()], statusCounts[CommandStatus.FAILED.ordinal()],
+                System.nanoTime() - startNanos, latencies);
+        log.info("Batch run completed, commands: {}, elapsedNanos: {}", summary.commands(), summary.elapsedNanos());
+        return summary;
+    }
+
+    private static void writeLine(Writer output, String line) {
+        try {
+            output.write(line);
+            output.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.xyzbank.atm.atm_management_service.frontend;
+
+import com.xyzbank.atm.atm_management_service.utils.LatencyHistogram;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a batch run did: the commands by {@link CommandStatus}, how long the run took and the latency of every command.
+ */
+public record BatchSummary(long succeeded, long rejected, long failed, long elapsedNanos, LatencyHistogram latencies) {
+
+    public long commands() {
+        return succeeded + rejected + failed;
+    }
+
+    public double commandsPerSecond() {
+        return elapsedNanos == 0 ? 0 : commands() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @return the summary as printed at the end of a batch run, latencies in microseconds.
+     */
+    public String format() {
+        return String.format(Locale.ROOT, "Commands: %d (succeeded: %d, rejected: %d, failed: %d) in %.3f s, %.1f commands/s%n" +
+                        "Latency us: mean %.1f, p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f",
+                commands(), succeeded, rejected, failed, elapsedNanos / 1e9, commandsPerSecond(),
+                latencies.getMean() / 1e3, micros(50), micros(90), micros(99), micros(99.9), latencies.getMaxValue() / 1e3);
+    }
+
+    private double micros(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1e3;
+    }
+}
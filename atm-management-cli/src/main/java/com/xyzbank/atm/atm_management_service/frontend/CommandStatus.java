@@ -0,0 +1,11 @@
+package com.xyzbank.atm.atm_management_service.frontend;
+
+/**
+ * How a command ended: {@code REJECTED} when it was not understood or needs a login first and did not run,
+ * {@code FAILED} when it ran and the operation failed, e.g. a withdrawal above the balance.
+ */
+public enum CommandStatus {
+    SUCCEEDED,
+    REJECTED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.xyzbank.atm.atm_management_service.frontend;
+
+public enum FrontEndMode {
+    CONSOLE,
+    TCP
+}
@@ -0,0 +1,57 @@
+package com.xyzbank.atm.atm_management_service.loadtest;
+
+import java.util.Random;
+
+/**
+ * Picks account indexes in {@code [0, accountCount)}, either uniformly or following a Zipfian distribution where index
+ * 0 is the hottest account. The Zipfian picks use the method of Gray et al. ("Quickly Generating Billion-Record
+ * Synthetic Databases"), which costs O(1) per pick once the zeta constant is computed.
+ */
+public class AccountPicker {
+
+    private final int accountCount;
+
+    private final AccountSkew skew;
+
+    private final double theta;
+
+    private final double zetaN;
+
+    private final double alpha;
+
+    private final double eta;
+
+    /**
+     * @param accountCount the number of accounts to pick from.
+     * @param skew         the distribution of the picks.
+     * @param theta        the Zipfian exponent, between 0 and 1 exclusive; higher is more skewed.
+     */
+    public AccountPicker(int accountCount, AccountSkew skew, double theta) {
+        if (accountCount < 1) throw new IllegalArgumentException("accountCount must be positive: " + accountCount);
+        if (skew == AccountSkew.ZIPFIAN && (theta <= 0 || theta >= 1)) {
+            throw new IllegalArgumentException("Zipfian exponent must be between 0 and 1: " + theta);
+        }
+        this.accountCount = accountCount;
+        this.skew = skew;
+        this.theta = theta;
+        double zeta = 0;
+        if (skew == AccountSkew.ZIPFIAN) {
+            for (int rank = 1; rank <= accountCount; rank++) {
+                zeta += 1 / Math.pow(rank, theta);
+            }
+        }
+        this.zetaN = zeta;
+        this.alpha = 1 / (1 - theta);
+        double zeta2 = 1 + 1 / Math.pow(2, theta);
+        this.eta = (1 - Math.pow(2.0 / accountCount, 1 - theta)) / (1 - zeta2 / zetaN);
+    }
+
+    public int next(Random random) {
+        if (skew == AccountSkew.UNIFORM) return random.nextInt(accountCount);
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1) return 0;
+        if (uz < 1 + Math.pow(0.5, theta)) return Math.min(1, accountCount - 1);
+        return Math.min((int) (accountCount * Math.pow(eta * u - eta + 1, alpha)), accountCount - 1);
+    }
+}
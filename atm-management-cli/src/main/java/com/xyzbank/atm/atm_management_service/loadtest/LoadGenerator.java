@@ -0,0 +1,250 @@
+package com.xyzbank.atm.atm_management_service.loadtest;
+
+import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
+import com.xyzbank.atm.atm_management_service.exception.CreateAccountException;
+import com.xyzbank.atm.atm_management_service.model.AccountContention;
+import com.xyzbank.atm.atm_management_service.model.CreateAccountRequestModel;
+import com.xyzbank.atm.atm_management_service.model.LockWaitStats;
+import com.xyzbank.atm.atm_management_service.service.AccountLockManager;
+import com.xyzbank.atm.atm_management_service.service.AccountCrudService;
+import com.xyzbank.atm.atm_management_service.service.AccountTransactionalService;
+import com.xyzbank.atm.atm_management_service.service.ContentionMetrics;
+import com.xyzbank.atm.atm_management_service.utils.LatencyHistogram;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Puts concurrent load on {@link AccountTransactionalService}. It creates {@code accounts} accounts, then runs a mix
+ * of deposits, withdrawals and transfers from {@code threads} threads for {@code durationMs}. The accounts of each
+ * operation are picked with the configured {@link AccountSkew}, so a Zipfian skew concentrates the load on a few hot
+ * accounts. Every thread records into its own histograms, merged once the load stops, and the debt table is sampled
+ * every {@code reportIntervalMs} to show how it grows.
+ */
+@Component("loadGenerator")
+@Slf4j
+public class LoadGenerator {
+
+    private static final String ACCOUNT_NAME_PREFIX = "load-user-";
+
+    private static final String REMARKS = "load test";
+
+    private static final int HOTTEST_ACCOUNTS = 5;
+
+    private final AccountCrudService accountCrudService;
+
+    private final AccountTransactionalService accountTransactionalService;
+
+    private final ContentionMetrics contentionMetrics;
+
+    private final AccountLockManager accountLockManager;
+
+    private final int accounts;
+
+    private final int threads;
+
+    private final long durationNanos;
+
+    private final long reportIntervalNanos;
+
+    private final int[] operationWeights;
+
+    private final int maxAmount;
+
+    private final AccountPicker accountPicker;
+
+    public LoadGenerator(AccountCrudService accountCrudService,
+                         AccountTransactionalService accountTransactionalService,
+                         ContentionMetrics contentionMetrics,
+                         AccountLockManager accountLockManager,
+                         @Value("${atm.load-test.accounts:1000}") int accounts,
+                         @Value("${atm.load-test.threads:8}") int threads,
+                         @Value("${atm.load-test.duration-ms:30000}") long durationMs,
+                         @Value("${atm.load-test.report-interval-ms:5000}") long reportIntervalMs,
+                         @Value("${atm.load-test.mix.deposit:40}") int depositWeight,
+                         @Value("${atm.load-test.mix.withdraw:30}") int withdrawWeight,
+                         @Value("${atm.load-test.mix.transfer:30}") int transferWeight,
+                         @Value("${atm.load-test.max-amount:100}") int maxAmount,
+                         @Value("${atm.load-test.skew:ZIPFIAN}") AccountSkew skew,
+                         @Value("${atm.load-test.zipf-exponent:0.99}") double zipfExponent) {
+        if (accounts < 2) throw new IllegalArgumentException("A load test needs at least 2 accounts: " + accounts);
+        if (depositWeight < 0 || withdrawWeight < 0 || transferWeight < 0 || depositWeight + withdrawWeight + transferWeight == 0) {
+            throw new IllegalArgumentException("The operation mix needs non-negative weights and at least one positive weight");
+        }
+        this.accountCrudService = accountCrudService;
+        this.accountTransactionalService = accountTransactionalService;
+        this.contentionMetrics = contentionMetrics;
+        this.accountLockManager = accountLockManager;
+        this.accounts = accounts;
+        this.threads = threads;
+        this.durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMs);
+        this.reportIntervalNanos = TimeUnit.MILLISECONDS.toNanos(reportIntervalMs);
+        this.operationWeights = new int[]{depositWeight, depositWeight + withdrawWeight, depositWeight + withdrawWeight + transferWeight};
+        this.maxAmount = maxAmount;
+        this.accountPicker = new AccountPicker(accounts, skew, zipfExponent);
+    }
+
+    /**
+     * Creates the accounts, runs the load and reports on it.
+     *
+     * @param progress where a line is written for every report interval.
+     * @return the report of the run.
+     */
+    public LoadTestReport run(Consumer<String> progress) throws CreateAccountException, InterruptedException, ExecutionException {
+        long[] accountIds = createAccounts();
+        AccountContention contentionBefore = sumContention(accountIds);
+        LockWaitStats lockWaitsBefore = accountLockManager.getLockWaitStats();
+        progress.accept(String.format("Load test started, accounts: %d, threads: %d", accounts, threads));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "load-generator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        LongAdder completedOperations = new LongAdder();
+        List<LoadTestSample> samples = new ArrayList<>();
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + durationNanos;
+        try {
+            List<Future<WorkerResult>> futures = new ArrayList<>();
+            for (int idx = 0; idx < threads; idx++) {
+                futures.add(executorService.submit(() -> runWorker(accountIds, deadlineNanos, completedOperations)));
+            }
+            for (long sampleNanos = startNanos + reportIntervalNanos; sampleNanos - deadlineNanos < 0; sampleNanos += reportIntervalNanos) {
+                TimeUnit.NANOSECONDS.sleep(sampleNanos - System.nanoTime());
+                samples.add(sample(startNanos, completedOperations, progress));
+            }
+            WorkerResult total = new WorkerResult();
+            for (Future<WorkerResult> future : futures) {
+                total.add(future.get());
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+            samples.add(sample(startNanos, completedOperations, progress));
+            AccountContention contentionAfter = sumContention(accountIds);
+            AccountContention contention = new AccountContention(null,
+                    contentionAfter.conflicts() - contentionBefore.conflicts(),
+                    contentionAfter.retries() - contentionBefore.retries(),
+                    contentionAfter.failures() - contentionBefore.failures());
+            LockWaitStats lockWaitsAfter = accountLockManager.getLockWaitStats();
+            LockWaitStats lockWaits = new LockWaitStats(lockWaitsAfter.acquisitions() - lockWaitsBefore.acquisitions(),
+                    lockWaitsAfter.contendedAcquisitions() - lockWaitsBefore.contendedAcquisitions(),
+                    lockWaitsAfter.totalWaitNanos() - lockWaitsBefore.totalWaitNanos(), lockWaitsAfter.maxWaitNanos());
+            List<AccountContention> hottestAccounts = contentionMetrics.getHottestAccounts(HOTTEST_ACCOUNTS).stream()
+                    .filter(account -> account.conflicts() > 0)
+                    .toList();
+            return new LoadTestReport(elapsedNanos, total.latencies, total.failures, contention, lockWaits, hottestAccounts, samples);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private long[] createAccounts() throws CreateAccountException {
+        long[] accountIds = new long[accounts];
+        for (int idx = 0; idx < accounts; idx++) {
+            accountIds[idx] = accountCrudService.getOrCreateAccount(new CreateAccountRequestModel(ACCOUNT_NAME_PREFIX + idx, "", "")).getAccountId();
+        }
+        return accountIds;
+    }
+
+    private AccountContention sumContention(long[] accountIds) {
+        long conflicts = 0;
+        long retries = 0;
+        long failures = 0;
+        for (long accountId : accountIds) {
+            AccountContention contention = contentionMetrics.getContention(accountId);
+            conflicts += contention.conflicts();
+            retries += contention.retries();
+            failures += contention.failures();
+        }
+        return new AccountContention(null, conflicts, retries, failures);
+    }
+
+    private LoadTestSample sample(long startNanos, LongAdder completedOperations, Consumer<String> progress) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        LoadTestSample sample = new LoadTestSample(elapsedNanos, completedOperations.sum(),
+                accountCrudService.countDebts(DebtStatus.PENDING), accountCrudService.countDebts(DebtStatus.CLEARED));
+        progress.accept(String.format(Locale.ROOT, "[%.1f s] operations: %d, operations/s: %.1f, pending debts: %d, cleared debts: %d",
+                elapsedNanos / 1e9, sample.operations(), sample.operations() * 1e9 / elapsedNanos, sample.pendingDebts(), sample.clearedDebts()));
+        return sample;
+    }
+
+    private WorkerResult runWorker(long[] accountIds, long deadlineNanos, LongAdder completedOperations) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        WorkerResult result = new WorkerResult();
+        while (System.nanoTime() - deadlineNanos < 0) {
+            LoadOperation operation = pickOperation(random);
+            long accountId = accountIds[accountPicker.next(random)];
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(maxAmount) + 1L);
+            long startNanos = System.nanoTime();
+            boolean succeeded = perform(operation, accountId, accountIds, amount, random);
+            result.record(operation, System.nanoTime() - startNanos, succeeded);
+            completedOperations.increment();
+        }
+        return result;
+    }
+
+    private LoadOperation pickOperation(Random random) {
+        int pick = random.nextInt(operationWeights[2]);
+        if (pick < operationWeights[0]) return LoadOperation.DEPOSIT;
+        return pick < operationWeights[1] ? LoadOperation.WITHDRAW : LoadOperation.TRANSFER;
+    }
+
+    /**
+     * @return false when the operation failed, e.g. a withdrawal above the balance or a conflict that outlasted the
+     * retries.
+     */
+    private boolean perform(LoadOperation operation, long accountId, long[] accountIds, BigDecimal amount, Random random) {
+        try {
+            switch (operation) {
+                case DEPOSIT -> accountTransactionalService.deposit(accountId, amount, REMARKS);
+                case WITHDRAW -> accountTransactionalService.withdraw(accountId, amount, REMARKS);
+                case TRANSFER -> {
+                    long toAccountId;
+                    do {
+                        toAccountId = accountIds[accountPicker.next(random)];
+                    } while (toAccountId == accountId);
+                    accountTransactionalService.transfer(accountId, toAccountId, amount, REMARKS);
+                }
+            }
+            return true;
+        } catch (Exception ex) {
+            log.debug("Load test operation failed, operation: {}, accountId: {}, error: {}", operation, accountId, ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * The latencies and failures recorded by one thread, or the sum of them all.
+     */
+    private static final class WorkerResult {
+
+        private final Map<LoadOperation, LatencyHistogram> latencies = new EnumMap<>(LoadOperation.class);
+
+        private final Map<LoadOperation, Long> failures = new EnumMap<>(LoadOperation.class);
+
+        private WorkerResult() {
+            for (LoadOperation operation : LoadOperation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+                failures.put(operation, 0L);
+            }
+        }
+
+        private void record(LoadOperation operation, long latencyNanos, boolean succeeded) {
+            latencies.get(operation).record(latencyNanos);
+            if (!succeeded) failures.merge(operation, 1L, Long::sum);
+        }
+
+        private void add(WorkerResult other) {
+            other.latencies.forEach((operation, histogram) -> latencies.get(operation).add(histogram));
+            other.failures.forEach((operation, count) -> failures.merge(operation, count, Long::sum));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.xyzbank.atm.atm_management_service.loadtest;
+
+public enum LoadOperation {
+    DEPOSIT,
+    WITHDRAW,
+    TRANSFER
+}
@@ -0,0 +1,76 @@
+package com.xyzbank.atm.atm_management_service.loadtest;
+
+import com.xyzbank.atm.atm_management_service.model.AccountContention;
+import com.xyzbank.atm.atm_management_service.model.LockWaitStats;
+import com.xyzbank.atm.atm_management_service.utils.LatencyHistogram;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The result of a load test.
+ *
+ * @param elapsedNanos the time the load ran.
+ * @param latencies    the latencies of each operation type, in nanoseconds.
+ * @param failures     the failed operations of each type.
+ * @param contention   the version conflicts, retries and exhausted retries on the load test accounts during the run;
+ *                     its accountId is null.
+ * @param lockWaits    the account lock acquisitions and waits during the run; its maxWaitNanos covers the whole
+ *                     process.
+ * @param hottestAccounts the accounts with the most version conflicts, most contended first.
+ * @param samples      the progress of the run, one sample per report interval and one at the end.
+ */
+public record LoadTestReport(long elapsedNanos, Map<LoadOperation, LatencyHistogram> latencies,
+                             Map<LoadOperation, Long> failures, AccountContention contention, LockWaitStats lockWaits,
+                             List<AccountContention> hottestAccounts, List<LoadTestSample> samples) {
+
+    public long operations() {
+        return latencies.values().stream().mapToLong(LatencyHistogram::getTotalCount).sum();
+    }
+
+    public double operationsPerSecond() {
+        return elapsedNanos == 0 ? 0 : operations() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @return the share of operations that met a version conflict, counting each conflict once.
+     */
+    public double conflictRate() {
+        return operations() == 0 ? 0 : (double) contention.conflicts() / operations();
+    }
+
+    /**
+     * @return the share of account lock acquisitions that had to wait for another operation.
+     */
+    public double lockContentionRate() {
+        return lockWaits.acquisitions() == 0 ? 0 : (double) lockWaits.contendedAcquisitions() / lockWaits.acquisitions();
+    }
+
+    public String format() {
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                "Operations: %d in %.3f s, %.1f operations/s%n", operations(), elapsedNanos / 1e9, operationsPerSecond()));
+        latencies.forEach((operation, histogram) -> report.append(String.format(Locale.ROOT,
+                "%-9s count %d, failed %d, latency us: mean %.1f, p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                operation.name().toLowerCase(Locale.ROOT), histogram.getTotalCount(), failures.get(operation),
+                histogram.getMean() / 1e3, histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(90) / 1e3,
+                histogram.getValueAtPercentile(99) / 1e3, histogram.getValueAtPercentile(99.9) / 1e3, histogram.getMaxValue() / 1e3)));
+        report.append(String.format(Locale.ROOT, "Version conflicts: %d (%.2f%% of operations), retries: %d, exhausted retries: %d%n",
+                contention.conflicts(), conflictRate() * 100, contention.retries(), contention.failures()));
+        report.append(String.format(Locale.ROOT, "Lock waits: %d of %d acquisitions (%.2f%%), wait us: mean %.1f, max %.1f%n",
+                lockWaits.contendedAcquisitions(), lockWaits.acquisitions(), lockContentionRate() * 100,
+                lockWaits.contendedAcquisitions() == 0 ? 0 : lockWaits.totalWaitNanos() / 1e3 / lockWaits.contendedAcquisitions(),
+                lockWaits.maxWaitNanos() / 1e3));
+        if (!hottestAccounts.isEmpty()) {
+            report.append("Hottest accounts: account id, version conflicts, retries, exhausted retries");
+            hottestAccounts.forEach(account -> report.append(String.format(Locale.ROOT, "%n%12d %12d %12d %12d",
+                    account.accountId(), account.conflicts(), account.retries(), account.failures())));
+            report.append(System.lineSeparator());
+        }
+        report.append("Debt table: seconds, operations, pending debts, cleared debts");
+        samples.forEach(sample -> report.append(String.format(Locale.ROOT, "%n%8.1f %12d %12d %12d",
+                sample.elapsedNanos() / 1e9, sample.operations(), sample.pendingDebts(), sample.clearedDebts())));
+        return report.toString();
+    }
+}
@@ -0,0 +1,12 @@
+package com.xyzbank.atm.atm_management_service.loadtest;
+
+/**
+ * The progress of a load test at one point in time.
+ *
+ * @param elapsedNanos the time since the load started.
+ * @param operations   the operations completed so far.
+ * @param pendingDebts the pending debts in the debt table.
+ * @param clearedDebts the cleared debts in the debt table, not yet archived.
+ */
+public record LoadTestSample(long elapsedNanos, long operations, long pendingDebts, long clearedDebts) {
+}
@@ -0,0 +1,147 @@
+package com.xyzbank.atm.atm_management_service.session;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues the ids of the logged-in ATM sessions, keeps their state and expires the ones left idle for longer than
+ * {@code idleTimeoutMs}.
+ * <p>
+ * Expiry is driven by a hashed timing wheel that advances one bucket every {@code tickMs}. A session sits in the bucket
+ * of the tick it expires at if it is not used again. Using a session only records the current tick on it; when its
+ * bucket comes round, a session used since is moved to the bucket of its new expiry tick and an idle one is removed.
+ * So a tick costs O(1) per session in its bucket, using a session takes no lock, and only the sessions used within
+ * the idle timeout are held.
+ */
+@Component("sessionManager")
+@Slf4j
+public class SessionManager {
+
+    private final Map<Long, Entry> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong sessionIds = new AtomicLong();
+
+    private final Queue<Entry>[] wheel;
+
+    private final int wheelMask;
+
+    private final long timeoutTicks;
+
+    private volatile long currentTick;
+
+    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @SuppressWarnings("unchecked")
+    public SessionManager(@Value("${atm.session.idle-timeout-ms:300000}") long idleTimeoutMs,
+                          @Value("${atm.session.tick-ms:1000}") long tickMs) {
+        this.timeoutTicks = Math.max(1, (idleTimeoutMs + tickMs - 1) / tickMs);
+        int wheelSize = Integer.highestOneBit(Math.toIntExact(timeoutTicks)) << 1;
+        this.wheel = new Queue[wheelSize];
+        for (int idx = 0; idx < wheelSize; idx++) {
+            wheel[idx] = new ConcurrentLinkedQueue<>();
+        }
+        this.wheelMask = wheelSize - 1;
+        executorService.scheduleAtFixedRate(this::runTick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executorService.shutdown();
+    }
+
+    /**
+     * Opens a session logged in to the given account.
+     *
+     * @return the id of the new session.
+     */
+    public Long openSession(Long accountId, String userName) {
+        Entry entry = new Entry(sessionIds.incrementAndGet(), new SessionState(accountId, userName), currentTick);
+        sessions.put(entry.sessionId, entry);
+        wheel[(int) ((entry.lastAccessTick + timeoutTicks) & wheelMask)].add(entry);
+        return entry.sessionId;
+    }
+
+    /**
+     * Finds a session and marks it as used, so its idle timeout starts again.
+     *
+     * @return the state of the session, or empty when it was closed or has expired.
+     */
+    public Optional<SessionState> getSession(Long sessionId) {
+        Entry entry = sessions.get(sessionId);
+        if (entry == null) return Optional.empty();
+        entry.lastAccessTick = currentTick;
+        return Optional.of(entry.state);
+    }
+
+    /**
+     * Closes a session. Its wheel entry is dropped when its bucket comes round.
+     *
+     * @return the state of the session, or empty when it was already closed or has expired.
+     */
+    public Optional<SessionState> closeSession(Long sessionId) {
+        return Optional.ofNullable(sessions.remove(sessionId)).map(entry -> entry.state);
+    }
+
+    public int getOpenSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * Advances the wheel by one bucket and expires the idle sessions in it.
+     *
+     * @return the number of sessions expired.
+     */
+    public synchronized int tick() {
+        long tick = currentTick + 1;
+        currentTick = tick;
+        Queue<Entry> bucket = wheel[(int) (tick & wheelMask)];
+        int expired = 0;
+        Entry entry;
+        while ((entry = bucket.poll()) != null) {
+            if (sessions.get(entry.sessionId) != entry) continue;
+            long expiryTick = entry.lastAccessTick + timeoutTicks;
+            if (expiryTick > tick) {
+                wheel[(int) (expiryTick & wheelMask)].add(entry);
+            } else if (sessions.remove(entry.sessionId, entry)) {
+                expired++;
+            }
+        }
+        if (expired > 0) log.debug("Expired idle sessions, count: {}, openSessions: {}", expired, sessions.size());
+        return expired;
+    }
+
+    private void runTick() {
+        try {
+            tick();
+        } catch (RuntimeException ex) {
+            log.error("Error in session expiry tick", ex);
+        }
+    }
+
+    private static final class Entry {
+
+        private final Long sessionId;
+
+        private final SessionState state;
+
+        private volatile long lastAccessTick;
+
+        private Entry(Long sessionId, SessionState state, long lastAccessTick) {
+            this.sessionId = sessionId;
+            this.state = state;
+            this.lastAccessTick = lastAccessTick;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.xyzbank.atm.atm_management_service.session;
+
+/**
+ * The account a session is logged in to. Only the account id is kept; balances are always read from the database.
+ *
+ * @param accountId the account logged in to.
+ * @param userName  the name of the user who logged in.
+ */
+public record SessionState(Long accountId, String userName) {
+}
@@ -11,11 +11,15 @@ public class CommandLineInputText {
 
     public static final String BALANCE_MESSAGE = "Your balance is $%s";
 
+    public static final String TRANSFERRED_MESSAGE = "Transferred $%s to %s";
+
     public static final String OWED_TO_MESSAGE = "Owed $%s to %s";
 
     public static final String OWED_FROM_MESSAGE = "Owed $%s from %s";
 
     public static final String LOGIN_WARNING_MESSAGE = "Please login first to perform ATM operation";
 
+    public static final String SESSION_EXPIRED_MESSAGE = "Your session has expired, please login again";
+
     public static final String EXIT_MESSAGE = "Goodbye, %s!";
 }
@@ -0,0 +1,37 @@
+package com.xyzbank.atm.atm_management_service.utils;
+
+/**
+ * Splits a command line into its words. The line is scanned twice, once to count the words and once to cut them, so
+ * a command allocates only its words and the array holding them.
+ */
+public class CommandTokenizer {
+
+    private CommandTokenizer() {
+    }
+
+    /**
+     * @param line the command line.
+     * @return the words of the line, separated by runs of whitespace or control characters; empty for a blank line.
+     */
+    public static String[] tokenize(String line) {
+        int length = line.length();
+        int count = 0;
+        for (int idx = 0; idx < length; idx++) {
+            if (!isSeparator(line.charAt(idx)) && (idx == 0 || isSeparator(line.charAt(idx - 1)))) count++;
+        }
+        String[] tokens = new String[count];
+        int token = 0;
+        int idx = 0;
+        while (token < count) {
+            while (isSeparator(line.charAt(idx))) idx++;
+            int start = idx;
+            while (idx < length && !isSeparator(line.charAt(idx))) idx++;
+            tokens[token++] = line.substring(start, idx);
+        }
+        return tokens;
+    }
+
+    private static boolean isSeparator(char ch) {
+        return ch <= ' ';
+    }
+}
@@ -0,0 +1,86 @@
+package com.xyzbank.atm.atm_management_service.utils;
+
+/**
+ * Counts latencies in log-linear buckets, the way HdrHistogram does: values below 64 have a bucket each, and every
+ * power of two above is split into 32 buckets, so a recorded value is kept to within about 3% in a fixed 15KB array.
+ * Recording does not allocate. Not thread-safe: each thread records into its own histogram and they are merged with
+ * {@link #add(LatencyHistogram)}.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int LINEAR_LIMIT = SUB_BUCKETS << 1;
+
+    private static final int BUCKETS = LINEAR_LIMIT + (Long.SIZE - 1 - (SUB_BUCKET_BITS + 1)) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+
+    private long totalCount;
+
+    private long totalValue;
+
+    private long maxValue;
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[bucketOf(value)]++;
+        totalCount++;
+        totalValue += value;
+        if (value > maxValue) maxValue = value;
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int idx = 0; idx < BUCKETS; idx++) {
+            counts[idx] += other.counts[idx];
+        }
+        totalCount += other.totalCount;
+        totalValue += other.totalValue;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100.
+     * @return the highest value of the bucket holding the percentile, or 0 when nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int idx = 0; idx < BUCKETS; idx++) {
+            seen += counts[idx];
+            if (seen >= rank) return Math.min(highestValueOf(idx), maxValue);
+        }
+        return maxValue;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) return (int) value;
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_LIMIT) return bucket;
+        int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        long mantissa = (bucket - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long highest = ((mantissa + 1) << shift) - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+}
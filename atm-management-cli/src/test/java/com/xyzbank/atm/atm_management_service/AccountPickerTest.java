@@ -0,0 +1,46 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.loadtest.AccountPicker;
+import com.xyzbank.atm.atm_management_service.loadtest.AccountSkew;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountPickerTest {
+
+    private static final int ACCOUNTS = 1000;
+
+    private static final int PICKS = 200_000;
+
+    @Test
+    void testNext_zipfianConcentratesOnHotAccounts() {
+        int[] counts = pick(new AccountPicker(ACCOUNTS, AccountSkew.ZIPFIAN, 0.99));
+
+        int hottestTen = 0;
+        for (int idx = 0; idx < 10; idx++) hottestTen += counts[idx];
+        assertTrue(counts[0] > counts[1] && counts[1] > counts[10] && counts[10] > counts[500]);
+        assertTrue(hottestTen > PICKS * 0.3, "hottest ten accounts: " + hottestTen);
+    }
+
+    @Test
+    void testNext_uniformSpreadsEvenly() {
+        int[] counts = pick(new AccountPicker(ACCOUNTS, AccountSkew.UNIFORM, 0.99));
+
+        for (int count : counts) assertEquals(PICKS / ACCOUNTS, count, PICKS / ACCOUNTS * 0.5);
+    }
+
+    @Test
+    void testConstructor_invalidExponentIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AccountPicker(ACCOUNTS, AccountSkew.ZIPFIAN, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new AccountPicker(0, AccountSkew.UNIFORM, 0.99));
+    }
+
+    private static int[] pick(AccountPicker accountPicker) {
+        Random random = new Random(42);
+        int[] counts = new int[ACCOUNTS];
+        for (int idx = 0; idx < PICKS; idx++) counts[accountPicker.next(random)]++;
+        return counts;
+    }
+}
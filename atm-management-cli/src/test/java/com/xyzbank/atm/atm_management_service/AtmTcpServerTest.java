@@ -0,0 +1,139 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.frontend.AtmCommandProcessor;
+import com.xyzbank.atm.atm_management_service.frontend.AtmSession;
+import com.xyzbank.atm.atm_management_service.frontend.AtmTcpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AtmTcpServerTest {
+
+    private static final int TERMINALS = 200;
+
+    @Mock
+    private AtmCommandProcessor atmCommandProcessor;
+
+    private AtmTcpServer atmTcpServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        atmTcpServer = new AtmTcpServer(atmCommandProcessor, 0, 4, 64, TERMINALS);
+        atmTcpServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        atmTcpServer.stop();
+    }
+
+    @Test
+    void testSessions_stateIsKeptPerConnection() throws IOException {
+        stubLoginAndWhoami();
+        List<Terminal> terminals = new ArrayList<>();
+        try {
+            for (int idx = 0; idx < TERMINALS; idx++) {
+                terminals.add(new Terminal(atmTcpServer.getPort()));
+            }
+            for (int idx = 0; idx < TERMINALS; idx++) {
+                terminals.get(idx).send("login " + idx + "\n");
+            }
+            for (int idx = 0; idx < TERMINALS; idx++) {
+                assertEquals("Hello, " + idx + "!", terminals.get(idx).readLine());
+                terminals.get(idx).send("whoami\n");
+            }
+            for (int idx = 0; idx < TERMINALS; idx++) {
+                assertEquals("Session " + idx, terminals.get(idx).readLine());
+            }
+            assertEquals(TERMINALS, atmTcpServer.getOpenSessions());
+        } finally {
+            for (Terminal terminal : terminals) terminal.close();
+        }
+        verify(atmCommandProcessor, timeout(5_000).times(TERMINALS)).closeSession(any(AtmSession.class));
+    }
+
+    @Test
+    void testPipelinedCommands_areRunInOrder() throws IOException {
+        stubLoginAndWhoami();
+        try (Terminal terminal = new Terminal(atmTcpServer.getPort())) {
+            terminal.send("login 7\r\nwhoami\nlogin 8\nwhoami\n");
+
+            assertEquals("Hello, 7!", terminal.readLine());
+            assertEquals("Session 7", terminal.readLine());
+            assertEquals("Hello, 8!", terminal.readLine());
+            assertEquals("Session 8", terminal.readLine());
+        }
+    }
+
+    @Test
+    void testLineTooLong_sessionIsClosed() throws IOException {
+        try (Terminal terminal = new Terminal(atmTcpServer.getPort())) {
+            terminal.send("x".repeat(100));
+
+            assertEquals("Command is too long!", terminal.readLine());
+            assertNull(terminal.readLine());
+        }
+        verify(atmCommandProcessor, never()).process(any(AtmSession.class), anyString());
+    }
+
+    private void stubLoginAndWhoami() {
+        doAnswer(invocation -> {
+            AtmSession session = invocation.getArgument(0);
+            String[] command = invocation.<String>getArgument(1).split(" ");
+            if ("login".equals(command[0])) {
+                session.setSessionId(Long.valueOf(command[1]));
+                session.println("Hello, " + command[1] + "!");
+            } else {
+                session.println("Session " + session.getSessionId());
+            }
+            return null;
+        }).when(atmCommandProcessor).process(any(AtmSession.class), anyString());
+    }
+
+    private static final class Terminal implements AutoCloseable {
+
+        private final Socket socket;
+
+        private final BufferedReader reader;
+
+        private Terminal(int port) throws IOException {
+            socket = new Socket("localhost", port);
+            socket.setSoTimeout(10_000);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertTrue(reader.readLine().startsWith("Welcome to ATM application"));
+            assertEquals("", reader.readLine());
+        }
+
+        private void send(String text) throws IOException {
+            OutputStream outputStream = socket.getOutputStream();
+            outputStream.write(text.getBytes(StandardCharsets.UTF_8));
+            outputStream.flush();
+        }
+
+        private String readLine() throws IOException {
+            return reader.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
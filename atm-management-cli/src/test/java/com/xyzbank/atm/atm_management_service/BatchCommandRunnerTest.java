@@ -0,0 +1,87 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.frontend.AtmCommandProcessor;
+import com.xyzbank.atm.atm_management_service.frontend.AtmSession;
+import com.xyzbank.atm.atm_management_service.frontend.BatchCommandRunner;
+import com.xyzbank.atm.atm_management_service.frontend.BatchSummary;
+import com.xyzbank.atm.atm_management_service.frontend.CommandStatus;
+import com.xyzbank.atm.atm_management_service.service.DebtRestructuringScheduler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchCommandRunnerTest {
+
+    private static final String SCRIPT = "login alice\n\ndeposit 10\nwithdraw 100\nhello\n";
+
+    @Mock
+    private AtmCommandProcessor atmCommandProcessor;
+
+    @Mock
+    private DebtRestructuringScheduler debtRestructuringScheduler;
+
+    @InjectMocks
+    private BatchCommandRunner batchCommandRunner;
+
+    @Test
+    void testRun_commandsAreCountedByStatus() throws IOException {
+        stubProcessor();
+        StringWriter output = new StringWriter();
+
+        BatchSummary summary = batchCommandRunner.run(new BufferedReader(new StringReader(SCRIPT)), output);
+
+        assertEquals(4, summary.commands());
+        assertEquals(2, summary.succeeded());
+        assertEquals(1, summary.failed());
+        assertEquals(1, summary.rejected());
+        assertEquals(4, summary.latencies().getTotalCount());
+        assertEquals("login alice\ndeposit 10\nwithdraw 100\nhello\n", output.toString());
+        assertTrue(summary.format().startsWith("Commands: 4 (succeeded: 2, rejected: 1, failed: 1)"));
+        verify(atmCommandProcessor).closeSession(any(AtmSession.class));
+    }
+
+    @Test
+    void testRun_debtRestructuringIsFlushedOnceAtTheEnd() throws IOException {
+        stubProcessor();
+
+        batchCommandRunner.run(new BufferedReader(new StringReader(SCRIPT)), null);
+
+        verify(atmCommandProcessor, times(4)).process(argThat(session -> !session.isAwaitDebtRestructuring()), anyString());
+        InOrder inOrder = inOrder(atmCommandProcessor, debtRestructuringScheduler);
+        inOrder.verify(atmCommandProcessor).closeSession(any(AtmSession.class));
+        inOrder.verify(debtRestructuringScheduler, times(1)).flush();
+    }
+
+    @Test
+    void testRun_repliesCanBeDropped() throws IOException {
+        stubProcessor();
+
+        BatchSummary summary = batchCommandRunner.run(new BufferedReader(new StringReader(SCRIPT)), null);
+
+        assertEquals(4, summary.commands());
+        verify(atmCommandProcessor, times(4)).process(any(AtmSession.class), anyString());
+    }
+
+    private void stubProcessor() {
+        when(atmCommandProcessor.process(any(AtmSession.class), anyString())).thenAnswer(invocation -> {
+            AtmSession session = invocation.getArgument(0);
+            String command = invocation.getArgument(1);
+            session.println(command);
+            if (command.startsWith("withdraw")) return CommandStatus.FAILED;
+            return command.startsWith("hello") ? CommandStatus.REJECTED : CommandStatus.SUCCEEDED;
+        });
+    }
+}
@@ -0,0 +1,21 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.utils.CommandTokenizer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandTokenizerTest {
+
+    @Test
+    void testTokenize_wordsAreSplitOnWhitespaceRuns() {
+        assertArrayEquals(new String[]{"transfer", "bob", "10"}, CommandTokenizer.tokenize("  transfer \tbob   10\r"));
+        assertArrayEquals(new String[]{"logout"}, CommandTokenizer.tokenize("logout"));
+    }
+
+    @Test
+    void testTokenize_blankLineHasNoWords() {
+        assertEquals(0, CommandTokenizer.tokenize("").length);
+        assertEquals(0, CommandTokenizer.tokenize(" \t ").length);
+    }
+}
@@ -0,0 +1,46 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.utils.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testGetValueAtPercentile_valuesAreKeptWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) histogram.record(value * 1_000);
+
+        assertEquals(100_000, histogram.getTotalCount());
+        assertEquals(100_000_000, histogram.getMaxValue());
+        assertEquals(50_000_500, histogram.getMean(), 1);
+        assertEquals(50_000_000, histogram.getValueAtPercentile(50), 50_000_000 * 0.03);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(99), 99_000_000 * 0.03);
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testGetValueAtPercentile_smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 0; value < 64; value++) histogram.record(value);
+
+        assertEquals(31, histogram.getValueAtPercentile(50));
+        assertEquals(63, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testAdd_histogramsAreMerged() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(10);
+        second.record(Long.MAX_VALUE);
+
+        first.add(second);
+
+        assertEquals(2, first.getTotalCount());
+        assertEquals(10, first.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, first.getValueAtPercentile(100));
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+}
@@ -0,0 +1,87 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.account.Account;
+import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
+import com.xyzbank.atm.atm_management_service.exception.WithdrawOperationException;
+import com.xyzbank.atm.atm_management_service.loadtest.AccountSkew;
+import com.xyzbank.atm.atm_management_service.loadtest.LoadGenerator;
+import com.xyzbank.atm.atm_management_service.loadtest.LoadOperation;
+import com.xyzbank.atm.atm_management_service.loadtest.LoadTestReport;
+import com.xyzbank.atm.atm_management_service.model.AccountContention;
+import com.xyzbank.atm.atm_management_service.model.CreateAccountRequestModel;
+import com.xyzbank.atm.atm_management_service.model.LockWaitStats;
+import com.xyzbank.atm.atm_management_service.service.AccountLockManager;
+import com.xyzbank.atm.atm_management_service.service.AccountCrudService;
+import com.xyzbank.atm.atm_management_service.service.AccountTransactionalService;
+import com.xyzbank.atm.atm_management_service.service.ContentionMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoadGeneratorTest {
+
+    private static final int ACCOUNTS = 20;
+
+    @Mock
+    private AccountCrudService accountCrudService;
+
+    @Mock
+    private AccountTransactionalService accountTransactionalService;
+
+    @Mock
+    private ContentionMetrics contentionMetrics;
+
+    @Mock
+    private AccountLockManager accountLockManager;
+
+    @Test
+    void testRun_mixIsDrivenAndReported() throws Exception {
+        AtomicLong accountIds = new AtomicLong();
+        when(accountCrudService.getOrCreateAccount(any(CreateAccountRequestModel.class)))
+                .thenAnswer(invocation -> Account.builder().accountId(accountIds.incrementAndGet()).build());
+        AtomicLong pendingDebts = new AtomicLong();
+        when(accountCrudService.countDebts(DebtStatus.PENDING)).thenAnswer(invocation -> pendingDebts.addAndGet(5));
+        when(accountCrudService.countDebts(DebtStatus.CLEARED)).thenReturn(0L);
+        AtomicLong contentionReads = new AtomicLong();
+        when(contentionMetrics.getContention(anyLong())).thenAnswer(invocation -> contentionReads.incrementAndGet() <= ACCOUNTS
+                ? new AccountContention(invocation.getArgument(0), 1, 1, 0)
+                : new AccountContention(invocation.getArgument(0), 3, 2, 1));
+        when(accountLockManager.getLockWaitStats()).thenReturn(new LockWaitStats(10, 1, 1_000, 1_000), new LockWaitStats(110, 5, 9_000, 4_000));
+        when(contentionMetrics.getHottestAccounts(5)).thenReturn(List.of(new AccountContention(7L, 3, 2, 1), new AccountContention(8L, 0, 0, 0)));
+        when(accountTransactionalService.withdraw(anyLong(), any(), anyString())).thenThrow(new WithdrawOperationException("Insufficient balance"));
+        when(accountTransactionalService.transfer(anyLong(), anyLong(), any(), anyString())).thenAnswer(invocation -> {
+            assertNotEquals(invocation.<Long>getArgument(0), invocation.<Long>getArgument(1));
+            return null;
+        });
+        List<String> progress = new ArrayList<>();
+
+        LoadTestReport report = new LoadGenerator(accountCrudService, accountTransactionalService, contentionMetrics, accountLockManager,
+                ACCOUNTS, 4, 500, 100, 50, 25, 25, 100, AccountSkew.ZIPFIAN, 0.99).run(progress::add);
+
+        verify(accountCrudService, times(ACCOUNTS)).getOrCreateAccount(any(CreateAccountRequestModel.class));
+        assertTrue(report.operations() > 0);
+        assertEquals(report.latencies().get(LoadOperation.WITHDRAW).getTotalCount(), report.failures().get(LoadOperation.WITHDRAW));
+        assertEquals(0, report.failures().get(LoadOperation.DEPOSIT));
+        assertTrue(report.latencies().get(LoadOperation.DEPOSIT).getTotalCount() > report.latencies().get(LoadOperation.TRANSFER).getTotalCount());
+        assertEquals(new AccountContention(null, 2 * ACCOUNTS, ACCOUNTS, ACCOUNTS), report.contention());
+        assertEquals(report.samples().size() + 1, progress.size());
+        assertTrue(report.samples().size() >= 2);
+        assertTrue(report.samples().get(report.samples().size() - 1).pendingDebts() > report.samples().get(0).pendingDebts());
+        assertEquals(report.operations(), report.samples().get(report.samples().size() - 1).operations());
+        assertTrue(report.format().contains("Version conflicts: " + 2 * ACCOUNTS));
+        assertEquals(new LockWaitStats(100, 4, 8_000, 4_000), report.lockWaits());
+        assertTrue(report.format().contains("Lock waits: 4 of 100 acquisitions (4.00%), wait us: mean 2.0, max 4.0"));
+        assertEquals(List.of(new AccountContention(7L, 3, 2, 1)), report.hottestAccounts());
+        assertTrue(report.format().contains("Hottest accounts"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.session.SessionManager;
+import com.xyzbank.atm.atm_management_service.session.SessionState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionManagerTest {
+
+    private final SessionManager sessionManager = new SessionManager(180_000, 60_000);
+
+    @AfterEach
+    void tearDown() {
+        sessionManager.destroy();
+    }
+
+    @Test
+    void testOpenSession_idsAreUniqueAndStateIsKept() {
+        Long firstSessionId = sessionManager.openSession(1L, "alice");
+        Long secondSessionId = sessionManager.openSession(2L, "bob");
+
+        assertNotEquals(firstSessionId, secondSessionId);
+        assertEquals(new SessionState(1L, "alice"), sessionManager.getSession(firstSessionId).orElseThrow());
+        assertEquals(new SessionState(2L, "bob"), sessionManager.getSession(secondSessionId).orElseThrow());
+    }
+
+    @Test
+    void testTick_idleSessionExpiresAfterTimeout() {
+        Long sessionId = sessionManager.openSession(1L, "alice");
+
+        assertEquals(0, sessionManager.tick());
+        assertEquals(0, sessionManager.tick());
+        assertEquals(1, sessionManager.tick());
+        assertTrue(sessionManager.getSession(sessionId).isEmpty());
+        assertEquals(0, sessionManager.getOpenSessions());
+    }
+
+    @Test
+    void testTick_usedSessionIsKept() {
+        Long sessionId = sessionManager.openSession(1L, "alice");
+
+        sessionManager.tick();
+        sessionManager.tick();
+        assertTrue(sessionManager.getSession(sessionId).isPresent());
+        sessionManager.tick();
+        sessionManager.tick();
+
+        assertTrue(sessionManager.getSession(sessionId).isPresent());
+        for (int tick = 0; tick < 3; tick++) sessionManager.tick();
+        assertTrue(sessionManager.getSession(sessionId).isEmpty());
+    }
+
+    @Test
+    void testCloseSession_closedSessionIsNotExpired() {
+        Long sessionId = sessionManager.openSession(1L, "alice");
+
+        assertEquals("alice", sessionManager.closeSession(sessionId).orElseThrow().userName());
+        assertTrue(sessionManager.closeSession(sessionId).isEmpty());
+        for (int tick = 0; tick < 3; tick++) assertEquals(0, sessionManager.tick());
+    }
+
+    @Test
+    void testTick_manyShortLivedSessionsAreReleased() {
+        for (int round = 0; round < 10; round++) {
+            for (int idx = 0; idx < 10_000; idx++) sessionManager.openSession((long) idx, "user" + idx);
+            sessionManager.tick();
+        }
+        for (int tick = 0; tick < 3; tick++) sessionManager.tick();
+
+        assertEquals(0, sessionManager.getOpenSessions());
+    }
+}
@@ -2,13 +2,20 @@ package com.xyzbank.atm.atm_management_service.dao;
 
 import com.xyzbank.atm.atm_management_service.account.Account;
 import com.xyzbank.atm.atm_management_service.account.AccountStatus;
+import com.xyzbank.atm.atm_management_service.model.AccountBalanceUpdate;
+import com.xyzbank.atm.atm_management_service.model.AccountBalanceView;
+import com.xyzbank.atm.atm_management_service.model.AccountWithUser;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AccountDao extends JpaRepository<Account, Long> {
@@ -21,12 +28,70 @@ public interface AccountDao extends JpaRepository<Account, Long> {
      */
     Account findByUserId(Long userId);
 
+    /**
+     * Finds an account together with its user by the name of the user, in one query on the unique user name index.
+     *
+     * @param name the user name to search for.
+     * @return the account and its user, or empty if the user or its account does not exist.
+     */
+    @Query("SELECT new com.xyzbank.atm.atm_management_service.model.AccountWithUser(a, u) " +
+            "FROM Account a JOIN User u ON u.id = a.userId WHERE u.name = :name")
+    Optional<AccountWithUser> findWithUserByUserName(@Param("name") String name);
+
+    /**
+     * Reads the balance, currency and status of the account of a user by the name of the user, without loading the
+     * account entity.
+     *
+     * @param name the user name to search for.
+     * @return the balance view of the account, or empty if the user or its account does not exist.
+     */
+    @Query("SELECT new com.xyzbank.atm.atm_management_service.model.AccountBalanceView(a.accountId, a.balance, a.currency, a.accountStatus) " +
+            "FROM Account a JOIN User u ON u.id = a.userId WHERE u.name = :name")
+    Optional<AccountBalanceView> findBalanceViewByUserName(@Param("name") String name);
+
+    /**
+     * Finds the given accounts together with their users, in one query.
+     *
+     * @param accountIds the accountIds to search for.
+     * @return the accounts that exist, with their users.
+     */
+    @Query("SELECT new com.xyzbank.atm.atm_management_service.model.AccountWithUser(a, u) " +
+            "FROM Account a JOIN User u ON u.id = a.userId WHERE a.accountId IN :accountIds")
+    List<AccountWithUser> findAllWithUserByAccountIdIn(@Param("accountIds") Collection<Long> accountIds);
+
     @Modifying
     @Transactional
     @Query("UPDATE Account a SET a.balance = :newBalance, a.versionId = a.versionId + 1 " +
             "WHERE a.accountId = :accountId AND a.versionId = :versionId")
     int updateBalanceWithVersion(Long accountId, BigDecimal newBalance, Integer versionId);
 
+    /**
+     * Adds the amount to the balance of an available account in a single statement and returns the new balance and
+     * version. The statement reads the result of the update through an H2 data change delta table.
+     *
+     * @param accountId the accountId to update.
+     * @param amount    the amount to add.
+     * @return the new balance and version, or empty if the account does not exist or is not available.
+     */
+    @Transactional
+    @Query(value = "SELECT balance AS balance, version_id AS versionId FROM FINAL TABLE (UPDATE account SET balance = balance + :amount, version_id = version_id + 1 " +
+            "WHERE account_id = :accountId AND account_status = 'AVAILABLE')", nativeQuery = true)
+    Optional<AccountBalanceUpdate> addToBalance(@Param("accountId") Long accountId, @Param("amount") BigDecimal amount);
+
+    /**
+     * Subtracts the amount from the balance of an available account in a single statement, only if the balance
+     * covers it, and returns the new balance and version.
+     *
+     * @param accountId the accountId to update.
+     * @param amount    the amount to subtract.
+     * @return the new balance and version, or empty if the account does not exist, is not available or the balance
+     * is too low.
+     */
+    @Transactional
+    @Query(value = "SELECT balance AS balance, version_id AS versionId FROM FINAL TABLE (UPDATE account SET balance = balance - :amount, version_id = version_id + 1 " +
+            "WHERE account_id = :accountId AND account_status = 'AVAILABLE' AND balance >= :amount)", nativeQuery = true)
+    Optional<AccountBalanceUpdate> subtractFromBalance(@Param("accountId") Long accountId, @Param("amount") BigDecimal amount);
+
     @Modifying
     @Transactional
     @Query("UPDATE Account a SET a.accountStatus = :accountStatus, a.versionId = a.versionId + 1 " +
@@ -2,19 +2,124 @@ package com.xyzbank.atm.atm_management_service.dao;
 
 import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
 import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
+import com.xyzbank.atm.atm_management_service.model.DebtDetail;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface DebtBalanceDao extends JpaRepository<DebtBalance, Long> {
 
+    /**
+     * The ids of the debts that have the account on either side. Each side is looked up on its own index and the two
+     * are combined with a UNION, where an OR across the two columns would scan the whole table.
+     */
+    String ACCOUNT_DEBT_IDS = "(SELECT fd.debtId FROM DebtBalance fd WHERE fd.fromAccountId = :accountId " +
+            "UNION SELECT td.debtId FROM DebtBalance td WHERE td.toAccountId = :accountId)";
+
+    /**
+     * The ids of the debts that have any of the accounts on either side, combined from the two indexes as above.
+     */
+    String ACCOUNTS_DEBT_IDS = "(SELECT fd.debtId FROM DebtBalance fd WHERE fd.fromAccountId IN :accountIds " +
+            "UNION SELECT td.debtId FROM DebtBalance td WHERE td.toAccountId IN :accountIds)";
+
     List<DebtBalance> findByDebtStatus(DebtStatus debtStatus);
 
-    List<DebtBalance> findByFromAccountIdOrToAccountId(Long fromAccountId, Long toAccountId);
+    long countByDebtStatus(DebtStatus debtStatus);
+
+    /**
+     * Finds the oldest debts with the given status, up to the given limit.
+     *
+     * @param debtStatus the debt status to search for.
+     * @param limit      the maximum number of debts to return.
+     * @return the matching debts, in debtId order.
+     */
+    List<DebtBalance> findByDebtStatusOrderByDebtId(DebtStatus debtStatus, Limit limit);
+
+    List<DebtBalance> findByFromAccountIdAndToAccountIdAndDebtStatus(Long fromAccountId, Long toAccountId, DebtStatus debtStatus);
+
+    List<DebtBalance> findByFromAccountIdAndDebtStatus(Long fromAccountId, DebtStatus debtStatus);
+
+    /**
+     * Finds the pending debts that have the given account on either side, with the user names of both sides resolved
+     * in the same query.
+     *
+     * @param accountId the account id to search for.
+     * @return the debts of the account with the names of both sides, in debtId order.
+     */
+    @Query("SELECT new com.xyzbank.atm.atm_management_service.model.DebtDetail(" +
+            "d.debtId, d.fromAccountId, fu.name, d.toAccountId, tu.name, d.outStandingBalance) " +
+            "FROM DebtBalance d " +
+            "JOIN Account fa ON fa.accountId = d.fromAccountId JOIN User fu ON fu.id = fa.userId " +
+            "JOIN Account ta ON ta.accountId = d.toAccountId JOIN User tu ON tu.id = ta.userId " +
+            "WHERE d.debtStatus = com.xyzbank.atm.atm_management_service.debt.DebtStatus.PENDING " +
+            "AND d.debtId IN " + ACCOUNT_DEBT_IDS + " " +
+            "ORDER BY d.debtId")
+    List<DebtDetail> findDebtDetailsByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * Finds the debts with the given status that have any of the given accounts on either side.
+     *
+     * @param debtStatus the debt status to search for.
+     * @param accountIds the account ids to search for.
+     * @return the matching debts.
+     */
+    @Query("SELECT d FROM DebtBalance d WHERE d.debtStatus = :debtStatus AND d.debtId IN " + ACCOUNTS_DEBT_IDS)
+    List<DebtBalance> findByDebtStatusAndAccountIdIn(@Param("debtStatus") DebtStatus debtStatus,
+                                                     @Param("accountIds") Collection<Long> accountIds);
+
+    /**
+     * Finds and write-locks the pending debts between two accounts, in either direction, oldest first.
+     *
+     * @param accountId      one account of the pair.
+     * @param otherAccountId the other account of the pair.
+     * @return the pending debts of the pair.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM DebtBalance d WHERE d.debtStatus = com.xyzbank.atm.atm_management_service.debt.DebtStatus.PENDING " +
+            "AND d.fromAccountId IN (:accountId, :otherAccountId) AND d.toAccountId IN (:accountId, :otherAccountId) " +
+            "ORDER BY d.debtId")
+    List<DebtBalance> findPendingByAccountPairForUpdate(@Param("accountId") Long accountId,
+                                                        @Param("otherAccountId") Long otherAccountId);
+
+    /**
+     * Finds and write-locks the pending debts that have any of the given accounts on either side.
+     *
+     * @param accountIds the account ids to search for.
+     * @return the matching debts, oldest first.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM DebtBalance d WHERE d.debtStatus = com.xyzbank.atm.atm_management_service.debt.DebtStatus.PENDING " +
+            "AND d.debtId IN " + ACCOUNTS_DEBT_IDS + " " +
+            "ORDER BY d.debtId")
+    List<DebtBalance> findPendingByAccountIdInForUpdate(@Param("accountIds") Collection<Long> accountIds);
 
-    List<DebtBalance> findByFromAccountIdAndToAccountId(Long fromAccountId, Long toAccountId);
+    /**
+     * Finds and write-locks the pending debts that have any of the given accounts on either side, without waiting:
+     * when another transaction holds the lock of one of them, the statement fails at once. The lock timeout hint is
+     * not rendered for H2, so the statement is native.
+     *
+     * @param accountIds the account ids to search for.
+     * @return the matching debts, oldest first.
+     */
+    @Query(value = "SELECT * FROM debt_balance d WHERE d.debt_status = 'PENDING' AND d.debt_id IN " +
+            "(SELECT fd.debt_id FROM debt_balance fd WHERE fd.from_account_id IN :accountIds " +
+            "UNION SELECT td.debt_id FROM debt_balance td WHERE td.to_account_id IN :accountIds) " +
+            "ORDER BY d.debt_id FOR UPDATE NOWAIT", nativeQuery = true)
+    List<DebtBalance> findPendingByAccountIdInForUpdateNowait(@Param("accountIds") Collection<Long> accountIds);
 
-    List<DebtBalance> findByFromAccountId(Long fromAccountId);
-}
\ No newline at end of file
+    /**
+     * Finds and write-locks every pending debt, without waiting, as above.
+     *
+     * @return the pending debts, oldest first.
+     */
+    @Query(value = "SELECT * FROM debt_balance d WHERE d.debt_status = 'PENDING' ORDER BY d.debt_id FOR UPDATE NOWAIT", nativeQuery = true)
+    List<DebtBalance> findPendingForUpdateNowait();
+}
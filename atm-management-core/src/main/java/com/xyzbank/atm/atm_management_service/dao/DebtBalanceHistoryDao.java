@@ -0,0 +1,25 @@
+package com.xyzbank.atm.atm_management_service.dao;
+
+import com.xyzbank.atm.atm_management_service.debt.DebtBalanceHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DebtBalanceHistoryDao extends JpaRepository<DebtBalanceHistory, Long> {
+
+    /**
+     * Finds the archived debts that had the given account on either side.
+     *
+     * @param accountId the account id to search for.
+     * @return the archived debts of the account, in the order they were cleared.
+     */
+    @Query("SELECT h FROM DebtBalanceHistory h WHERE h.historyId IN (" +
+            "SELECT fh.historyId FROM DebtBalanceHistory fh WHERE fh.fromAccountId = :accountId " +
+            "UNION SELECT th.historyId FROM DebtBalanceHistory th WHERE th.toAccountId = :accountId) " +
+            "ORDER BY h.clearedDate, h.debtId")
+    List<DebtBalanceHistory> findByAccountId(@Param("accountId") Long accountId);
+}
@@ -0,0 +1,74 @@
+package com.xyzbank.atm.atm_management_service.dao;
+
+import com.xyzbank.atm.atm_management_service.transaction.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface TransactionDao extends JpaRepository<Transaction, Long> {
+
+    /**
+     * The debits are looked up on the from account index and the credits on the to account index, combined with a
+     * UNION, where an OR across the two columns would scan the whole journal.
+     */
+    String ACCOUNT_ENTRIES = "SELECT t FROM Transaction t WHERE t.transactionId IN (" +
+            "SELECT dt.transactionId FROM Transaction dt WHERE dt.fromAccountId = :accountId " +
+            "AND dt.transactionType = com.xyzbank.atm.atm_management_service.transaction.TransactionType.DEBIT " +
+            "UNION SELECT ct.transactionId FROM Transaction ct WHERE ct.toAccountId = :accountId " +
+            "AND ct.transactionType = com.xyzbank.atm.atm_management_service.transaction.TransactionType.CREDIT) ";
+
+    /**
+     * Finds the journal entries of an account: the debits where it is the from account and the credits where it is
+     * the to account, oldest first.
+     *
+     * @param accountId the accountId to search for.
+     * @return the journal entries of the account.
+     */
+    @Query(ACCOUNT_ENTRIES + "ORDER BY t.transactionDate, t.transactionId")
+    List<Transaction> findByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * Finds one page of the journal entries of an account, in transactionId order. The page starts right after the
+     * given transactionId, so the cost of a page does not grow with the number of pages already read.
+     *
+     * @param accountId          the accountId to search for.
+     * @param afterTransactionId the last transactionId of the previous page, 0 for the first page.
+     * @param fromDate           the inclusive lower bound of the transaction date, or null for no bound.
+     * @param toDate             the exclusive upper bound of the transaction date, or null for no bound.
+     * @param limit              the maximum number of entries to return.
+     * @return the journal entries of the page.
+     */
+    @Query(ACCOUNT_ENTRIES + "AND t.transactionId > :afterTransactionId " +
+            "AND (:fromDate IS NULL OR t.transactionDate >= :fromDate) " +
+            "AND (:toDate IS NULL OR t.transactionDate < :toDate) " +
+            "ORDER BY t.transactionId")
+    List<Transaction> findPageByAccountId(@Param("accountId") Long accountId,
+                                          @Param("afterTransactionId") Long afterTransactionId,
+                                          @Param("fromDate") LocalDateTime fromDate,
+                                          @Param("toDate") LocalDateTime toDate,
+                                          Limit limit);
+
+    /**
+     * Streams the journal entries of an account, in transactionId order, through a forward-only cursor. The stream
+     * must be consumed and closed inside the transaction that opened it.
+     *
+     * @param accountId the accountId to search for.
+     * @return the journal entries of the account.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(ACCOUNT_ENTRIES + "ORDER BY t.transactionId")
+    Stream<Transaction> streamByAccountId(@Param("accountId") Long accountId);
+}
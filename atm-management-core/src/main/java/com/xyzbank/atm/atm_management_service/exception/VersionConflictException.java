@@ -0,0 +1,21 @@
+package com.xyzbank.atm.atm_management_service.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a versioned account update matched no row because the account was updated concurrently. It is
+ * unchecked so that a transaction around the update is rolled back. The accountId is null when a batched update
+ * does not tell which account it was.
+ */
+@Getter
+public class VersionConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long accountId;
+
+    public VersionConflictException(Long accountId) {
+        super("Account was updated concurrently, please retry");
+        this.accountId = accountId;
+    }
+}
@@ -0,0 +1,13 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+import java.math.BigDecimal;
+
+/**
+ * The balance and version an account was left with by a single-statement balance update.
+ */
+public interface AccountBalanceUpdate {
+
+    BigDecimal getBalance();
+
+    Integer getVersionId();
+}
@@ -0,0 +1,8 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+import com.xyzbank.atm.atm_management_service.account.AccountStatus;
+
+import java.math.BigDecimal;
+
+public record AccountBalanceView(Long accountId, BigDecimal balance, String currency, AccountStatus accountStatus) {
+}
@@ -0,0 +1,4 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+public record AccountContention(Long accountId, long conflicts, long retries, long failures) {
+}
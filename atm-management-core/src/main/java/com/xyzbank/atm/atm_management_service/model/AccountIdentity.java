@@ -0,0 +1,7 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+/**
+ * The ids an account name resolves to. Holds no balance or status, so it stays valid until the account is canceled.
+ */
+public record AccountIdentity(Long accountId, Long userId) {
+}
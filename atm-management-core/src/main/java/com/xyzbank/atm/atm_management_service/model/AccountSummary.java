@@ -0,0 +1,28 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+import com.xyzbank.atm.atm_management_service.account.AccountStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Everything shown after an operation: the balance of the account and its debts with the names of both sides, in
+ * debtId order.
+ */
+public record AccountSummary(Long accountId, String name, BigDecimal balance, String currency,
+                             AccountStatus accountStatus, List<DebtDetail> debts) {
+
+    /**
+     * @return the debts the account owes to other accounts.
+     */
+    public List<DebtDetail> owedTo() {
+        return debts.stream().filter(debt -> debt.fromAccountId().equals(accountId)).toList();
+    }
+
+    /**
+     * @return the debts other accounts owe to the account.
+     */
+    public List<DebtDetail> owedFrom() {
+        return debts.stream().filter(debt -> !debt.fromAccountId().equals(accountId)).toList();
+    }
+}
@@ -0,0 +1,7 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+import com.xyzbank.atm.atm_management_service.account.Account;
+import com.xyzbank.atm.atm_management_service.user.User;
+
+public record AccountWithUser(Account account, User user) {
+}
@@ -0,0 +1,11 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+import java.math.BigDecimal;
+
+/**
+ * A debt together with the names of the users on both sides. A negative outstanding balance means the from account
+ * owes the to account.
+ */
+public record DebtDetail(Long debtId, Long fromAccountId, String fromUserName, Long toAccountId, String toUserName,
+                         BigDecimal outStandingBalance) {
+}
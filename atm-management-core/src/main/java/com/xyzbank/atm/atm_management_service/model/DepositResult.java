@@ -0,0 +1,12 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * The state a deposit left the account in. When the deposit paid off debts of the account, the balance and version
+ * are the ones after the last settlement transfer.
+ */
+public record DepositResult(Long accountId, BigDecimal depositedAmount, BigDecimal balance, Integer versionId,
+                            List<TransferResult> debtSettlements) {
+}
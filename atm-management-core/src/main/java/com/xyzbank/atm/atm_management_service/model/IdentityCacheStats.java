@@ -0,0 +1,4 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+public record IdentityCacheStats(long hits, long misses, long evictions, int size) {
+}
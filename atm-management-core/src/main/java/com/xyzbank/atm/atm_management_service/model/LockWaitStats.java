@@ -0,0 +1,7 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+/**
+ * Lock wait counters of the account lock manager. An operation on two accounts counts one acquisition per stripe.
+ */
+public record LockWaitStats(long acquisitions, long contendedAcquisitions, long totalWaitNanos, long maxWaitNanos) {
+}
@@ -0,0 +1,10 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+import java.math.BigDecimal;
+
+/**
+ * A single settlement instruction produced by a debt solver: {@code fromAccountId} owes {@code amount} to
+ * {@code toAccountId}. The amount is always positive.
+ */
+public record SettlementEdge(Long fromAccountId, Long toAccountId, BigDecimal amount) {
+}
@@ -0,0 +1,11 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+import com.xyzbank.atm.atm_management_service.transaction.Transaction;
+
+import java.util.List;
+
+/**
+ * One page of transaction history. {@code nextTransactionId} is the cursor of the next page, or null on the last one.
+ */
+public record TransactionPage(List<Transaction> transactions, Long nextTransactionId) {
+}
@@ -0,0 +1,7 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+import java.time.LocalDateTime;
+
+public record TransactionPageRequestModel(String name, Long afterTransactionId, int limit, LocalDateTime fromDate,
+                                          LocalDateTime toDate) {
+}
@@ -0,0 +1,6 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+import java.math.BigDecimal;
+
+public record TransferCommand(Long fromAccountId, Long toAccountId, BigDecimal amount, String remarks) {
+}
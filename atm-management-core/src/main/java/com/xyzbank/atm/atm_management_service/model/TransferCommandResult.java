@@ -0,0 +1,23 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of one command of a batch transfer. {@code transferredAmount} is the amount moved between the balances and
+ * {@code debtAmount} the part of the command recorded as debt; {@code failureReason} is set when the command failed.
+ */
+public record TransferCommandResult(TransferCommand command, BigDecimal transferredAmount, BigDecimal debtAmount,
+                                   String failureReason) {
+
+    public static TransferCommandResult succeeded(TransferCommand command, BigDecimal transferredAmount, BigDecimal debtAmount) {
+        return new TransferCommandResult(command, transferredAmount, debtAmount, null);
+    }
+
+    public static TransferCommandResult failed(TransferCommand command, String failureReason) {
+        return new TransferCommandResult(command, BigDecimal.ZERO, BigDecimal.ZERO, failureReason);
+    }
+
+    public boolean isSuccess() {
+        return failureReason == null;
+    }
+}
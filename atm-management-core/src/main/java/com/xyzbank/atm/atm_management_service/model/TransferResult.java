@@ -0,0 +1,15 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+import java.math.BigDecimal;
+
+/**
+ * The outcome of a transfer and the state it left the from account in. The part of the amount the balance did not
+ * cover is recorded as a debt. When the to account already owed the from account, nothing is moved and the whole
+ * amount is recorded as a debt to be offset against it. {@code toUserName} is only set by a debt settlement, whose
+ * caller does not know the creditors, so it loads them together with their users. A transfer leaves it null: its
+ * caller already named the to account, and the account only holds the id of its user, so the name would cost every
+ * transfer one more query.
+ */
+public record TransferResult(Long fromAccountId, Long toAccountId, BigDecimal transferredAmount, BigDecimal debtAmount,
+                             BigDecimal fromBalance, Integer fromVersionId, boolean offsetAgainstDebt, String toUserName) {
+}
@@ -0,0 +1,6 @@
+package com.xyzbank.atm.atm_management_service.model;
+
+import java.math.BigDecimal;
+
+public record WithdrawResult(Long accountId, BigDecimal withdrawnAmount, BigDecimal balance, Integer versionId) {
+}
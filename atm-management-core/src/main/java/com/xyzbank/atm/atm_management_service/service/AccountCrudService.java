@@ -2,17 +2,24 @@ package com.xyzbank.atm.atm_management_service.service;
 
 import com.xyzbank.atm.atm_management_service.account.Account;
 import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
 import com.xyzbank.atm.atm_management_service.exception.CancelAccountException;
 import com.xyzbank.atm.atm_management_service.exception.CreateAccountException;
 import com.xyzbank.atm.atm_management_service.exception.InvalidAccountException;
 import com.xyzbank.atm.atm_management_service.model.AccountRequestModel;
+import com.xyzbank.atm.atm_management_service.model.AccountSummary;
 import com.xyzbank.atm.atm_management_service.model.CreateAccountRequestModel;
+import com.xyzbank.atm.atm_management_service.model.DebtDetail;
+import com.xyzbank.atm.atm_management_service.model.TransactionPage;
+import com.xyzbank.atm.atm_management_service.model.TransactionPageRequestModel;
 import com.xyzbank.atm.atm_management_service.transaction.Transaction;
 import com.xyzbank.atm.atm_management_service.user.User;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public interface AccountCrudService {
 
@@ -24,7 +31,34 @@ public interface AccountCrudService {
 
     List<Transaction> getTransaction(AccountRequestModel accountRequestModel) throws InvalidAccountException;
 
+    TransactionPage getTransactionPage(TransactionPageRequestModel transactionPageRequest) throws InvalidAccountException;
+
+    /**
+     * Streams the whole transaction history of an account to the given handler. The stream is only open while the
+     * handler runs, so the handler must not let it escape.
+     */
+    <R> R streamTransactions(AccountRequestModel accountRequestModel, Function<Stream<Transaction>, R> handler) throws InvalidAccountException;
+
     List<DebtBalance> getAllDebts(AccountRequestModel accountRequestModel) throws InvalidAccountException;
 
+    /**
+     * Returns the debts of an account with the names of the users on both sides, read in a single query whatever the
+     * number of counterparties.
+     */
+    List<DebtDetail> getDebtDetails(AccountRequestModel accountRequestModel) throws InvalidAccountException;
+
+    List<DebtDetail> getDebtDetails(Long accountId);
+
+    /**
+     * Counts the debts in the debt table with the given status. Cleared debts stay there until they are archived.
+     */
+    long countDebts(DebtStatus debtStatus);
+
+    /**
+     * Returns the balance, status and debts of an account, read in one read-only transaction with a fixed number of
+     * queries.
+     */
+    AccountSummary getAccountSummary(AccountRequestModel accountRequestModel) throws InvalidAccountException;
+
     BigDecimal getBalance(AccountRequestModel accountRequestModel) throws InvalidAccountException;
 }
@@ -0,0 +1,23 @@
+package com.xyzbank.atm.atm_management_service.service;
+
+import com.xyzbank.atm.atm_management_service.model.AccountIdentity;
+import com.xyzbank.atm.atm_management_service.model.IdentityCacheStats;
+
+import java.util.Optional;
+
+public interface AccountIdentityCache {
+
+    /**
+     * Returns the cached ids of the account with the given user name. Every call counts as a hit or a miss.
+     *
+     * @param name the user name.
+     * @return the cached ids, or empty when the name is not cached.
+     */
+    Optional<AccountIdentity> get(String name);
+
+    void put(String name, AccountIdentity accountIdentity);
+
+    void invalidate(String name);
+
+    IdentityCacheStats getStats();
+}
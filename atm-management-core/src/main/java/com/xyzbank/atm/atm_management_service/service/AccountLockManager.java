@@ -0,0 +1,24 @@
+package com.xyzbank.atm.atm_management_service.service;
+
+import com.xyzbank.atm.atm_management_service.model.LockWaitStats;
+
+public interface AccountLockManager {
+
+    /**
+     * Locks the given accounts against other operations of this process. The locks are always taken in the same
+     * order, so two operations that lock the same accounts in opposite order cannot deadlock. When the concurrency
+     * mode is not {@link AccountConcurrencyMode#STRIPED_LOCK} nothing is locked.
+     *
+     * @param accountIds the accounts to lock.
+     * @return the lease that unlocks the accounts when closed.
+     */
+    Lease lock(Long... accountIds);
+
+    LockWaitStats getLockWaitStats();
+
+    interface Lease extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -4,14 +4,30 @@ import com.xyzbank.atm.atm_management_service.exception.DepositOperationExceptio
 import com.xyzbank.atm.atm_management_service.exception.InvalidAccountException;
 import com.xyzbank.atm.atm_management_service.exception.TransferOperationException;
 import com.xyzbank.atm.atm_management_service.exception.WithdrawOperationException;
+import com.xyzbank.atm.atm_management_service.model.DepositResult;
+import com.xyzbank.atm.atm_management_service.model.TransferCommand;
+import com.xyzbank.atm.atm_management_service.model.TransferCommandResult;
+import com.xyzbank.atm.atm_management_service.model.TransferResult;
+import com.xyzbank.atm.atm_management_service.model.WithdrawResult;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public interface AccountTransactionalService {
 
-    void deposit(Long accountId, BigDecimal amount, String remarks) throws DepositOperationException;
+    DepositResult deposit(Long accountId, BigDecimal amount, String remarks) throws DepositOperationException;
 
-    void withdraw(Long accountId, BigDecimal amount, String remarks) throws WithdrawOperationException;
+    WithdrawResult withdraw(Long accountId, BigDecimal amount, String remarks) throws WithdrawOperationException;
 
-    void transfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String remarks) throws InvalidAccountException, TransferOperationException;
+    TransferResult transfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String remarks) throws InvalidAccountException, TransferOperationException;
+
+    /**
+     * Runs many independent transfers in one transaction. Every involved account is loaded with one query, the
+     * commands are applied in order to the in-memory balances and the changed accounts are written back in JDBC
+     * batches. A command that fails does not affect the others.
+     *
+     * @param transferCommands the transfers to run, in order.
+     * @return one result per command, in the order of the commands.
+     */
+    List<TransferCommandResult> transferBatch(List<TransferCommand> transferCommands);
 }
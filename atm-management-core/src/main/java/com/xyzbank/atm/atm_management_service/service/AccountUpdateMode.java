@@ -0,0 +1,6 @@
+package com.xyzbank.atm.atm_management_service.service;
+
+public enum AccountUpdateMode {
+    VERSIONED,
+    DELTA
+}
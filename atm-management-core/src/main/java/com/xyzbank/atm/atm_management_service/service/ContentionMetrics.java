@@ -0,0 +1,24 @@
+package com.xyzbank.atm.atm_management_service.service;
+
+import com.xyzbank.atm.atm_management_service.model.AccountContention;
+
+import java.util.List;
+
+public interface ContentionMetrics {
+
+    void recordConflict(Long accountId);
+
+    void recordRetry(Long accountId);
+
+    void recordFailure(Long accountId);
+
+    AccountContention getContention(Long accountId);
+
+    /**
+     * Returns the accounts with the most version conflicts, most contended first.
+     *
+     * @param limit the maximum number of accounts to return.
+     * @return the contention counters of the hottest accounts.
+     */
+    List<AccountContention> getHottestAccounts(int limit);
+}
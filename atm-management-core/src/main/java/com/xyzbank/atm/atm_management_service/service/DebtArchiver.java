@@ -0,0 +1,12 @@
+package com.xyzbank.atm.atm_management_service.service;
+
+public interface DebtArchiver {
+
+    /**
+     * Moves every cleared debt from the debt table to the debt history, one batch per transaction, and waits for it
+     * to complete. The archiver also does this on its own in the background.
+     *
+     * @return the number of debts archived.
+     */
+    int archiveClearedDebts();
+}
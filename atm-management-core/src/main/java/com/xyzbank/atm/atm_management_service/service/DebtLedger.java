@@ -0,0 +1,17 @@
+package com.xyzbank.atm.atm_management_service.service;
+
+import java.math.BigDecimal;
+
+public interface DebtLedger {
+
+    /**
+     * Adds a debt to the single pending debt kept between two accounts. What the creditor already owed the debtor is
+     * offset first, and the debt is cleared once the two accounts are even, so the ledger holds at most one pending
+     * debt per pair of accounts.
+     *
+     * @param debtorAccountId   the account that owes the amount.
+     * @param creditorAccountId the account the amount is owed to.
+     * @param debtAmount        the amount owed; nothing is recorded for zero.
+     */
+    void recordDebt(Long debtorAccountId, Long creditorAccountId, BigDecimal debtAmount);
+}
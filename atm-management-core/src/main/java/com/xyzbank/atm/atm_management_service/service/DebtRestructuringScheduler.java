@@ -0,0 +1,19 @@
+package com.xyzbank.atm.atm_management_service.service;
+
+import java.util.Collection;
+
+public interface DebtRestructuringScheduler {
+
+    /**
+     * Marks the debts of the given accounts as needing restructuring and returns immediately. Notifications that
+     * arrive before the next restructuring pass are coalesced into that single pass.
+     *
+     * @param accountIds the accounts touched by an operation.
+     */
+    void markDirty(Collection<Long> accountIds);
+
+    /**
+     * Runs the pending restructuring pass, if any, and waits for it to complete.
+     */
+    void flush();
+}
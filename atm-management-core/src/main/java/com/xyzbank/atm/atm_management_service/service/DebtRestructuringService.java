@@ -1,6 +1,15 @@
 package com.xyzbank.atm.atm_management_service.service;
 
+import java.util.Collection;
+
 public interface DebtRestructuringService {
 
     void restructureDebt();
+
+    /**
+     * Restructures only the debts connected to the given accounts, directly or through other indebted accounts.
+     *
+     * @param accountIds the accounts touched by an operation.
+     */
+    void restructureDebt(Collection<Long> accountIds);
 }
@@ -0,0 +1,19 @@
+package com.xyzbank.atm.atm_management_service.service;
+
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.model.SettlementEdge;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface DebtSettlementEngine {
+
+    /**
+     * Nets the given debts per account, splits them into independent zero-sum groups and settles every group with
+     * the solver that fits its size and the configured time budget.
+     *
+     * @param debtBalances the pending debts to settle.
+     * @return the settlement edges replacing the given debts.
+     */
+    List<SettlementEdge> settle(Collection<DebtBalance> debtBalances);
+}
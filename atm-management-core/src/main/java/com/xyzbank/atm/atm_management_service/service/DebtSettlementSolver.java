@@ -0,0 +1,19 @@
+package com.xyzbank.atm.atm_management_service.service;
+
+import com.xyzbank.atm.atm_management_service.model.SettlementEdge;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public interface DebtSettlementSolver {
+
+    /**
+     * Computes a set of transfers that settles the given net balances.
+     *
+     * @param netBalances net balance per account id; a positive balance means the account owes money, a negative
+     *                    balance means it is owed money. The balances must sum to zero.
+     * @return the settlement edges, each from a debtor to a creditor with a positive amount.
+     */
+    List<SettlementEdge> solve(Map<Long, BigDecimal> netBalances);
+}
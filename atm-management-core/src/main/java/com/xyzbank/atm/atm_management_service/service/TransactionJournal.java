@@ -0,0 +1,17 @@
+package com.xyzbank.atm.atm_management_service.service;
+
+import java.math.BigDecimal;
+
+public interface TransactionJournal {
+
+    void recordDeposit(Long accountId, BigDecimal amount, String remarks);
+
+    void recordWithdraw(Long accountId, BigDecimal amount, String remarks);
+
+    void recordTransfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String remarks);
+
+    /**
+     * Writes all buffered journal entries and waits until they are stored.
+     */
+    void flush();
+}
@@ -0,0 +1,21 @@
+package com.xyzbank.atm.atm_management_service.service;
+
+public interface VersionConflictRetrier {
+
+    /**
+     * Runs the operation and runs it again, after a jittered exponential backoff, every time it fails with a
+     * version conflict, until it succeeds or the configured attempts or total time are used up. The operation must
+     * re-read the accounts it updates on every attempt after the first one.
+     *
+     * @param operation the operation to run.
+     * @return the result of the first successful attempt.
+     * @throws E the exception of the operation, which is never retried.
+     */
+    <T, E extends Exception> T execute(VersionedOperation<T, E> operation) throws E;
+
+    @FunctionalInterface
+    interface VersionedOperation<T, E extends Exception> {
+
+        T run(int attempt) throws E;
+    }
+}
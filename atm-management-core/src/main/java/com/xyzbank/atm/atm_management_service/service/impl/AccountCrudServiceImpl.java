@@ -4,19 +4,34 @@ import com.xyzbank.atm.atm_management_service.account.Account;
 import com.xyzbank.atm.atm_management_service.account.AccountStatus;
 import com.xyzbank.atm.atm_management_service.dao.AccountDao;
 import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
+import com.xyzbank.atm.atm_management_service.dao.TransactionDao;
 import com.xyzbank.atm.atm_management_service.dao.UserDao;
 import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
 import com.xyzbank.atm.atm_management_service.exception.CancelAccountException;
 import com.xyzbank.atm.atm_management_service.exception.CreateAccountException;
 import com.xyzbank.atm.atm_management_service.exception.InvalidAccountException;
+import com.xyzbank.atm.atm_management_service.model.AccountBalanceView;
+import com.xyzbank.atm.atm_management_service.model.AccountIdentity;
 import com.xyzbank.atm.atm_management_service.model.AccountRequestModel;
+import com.xyzbank.atm.atm_management_service.model.AccountSummary;
+import com.xyzbank.atm.atm_management_service.model.AccountWithUser;
 import com.xyzbank.atm.atm_management_service.model.CreateAccountRequestModel;
+import com.xyzbank.atm.atm_management_service.model.DebtDetail;
+import com.xyzbank.atm.atm_management_service.model.TransactionPage;
+import com.xyzbank.atm.atm_management_service.model.TransactionPageRequestModel;
 import com.xyzbank.atm.atm_management_service.service.AccountCrudService;
+import com.xyzbank.atm.atm_management_service.service.AccountIdentityCache;
+import com.xyzbank.atm.atm_management_service.service.TransactionJournal;
 import com.xyzbank.atm.atm_management_service.transaction.Transaction;
 import com.xyzbank.atm.atm_management_service.user.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -24,6 +39,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service("accountCrudService")
 @Slf4j
@@ -31,6 +48,8 @@ public class AccountCrudServiceImpl implements AccountCrudService {
 
     private static final String DEFAULT_CURRENCY = "USD";
 
+    private static final int MAX_TRANSACTION_PAGE_SIZE = 500;
+
     @Autowired
     private UserDao userDao;
 
@@ -40,6 +59,17 @@ public class AccountCrudServiceImpl implements AccountCrudService {
     @Autowired
     private DebtBalanceDao debtBalanceDao;
 
+    @Autowired
+    private TransactionDao transactionDao;
+
+    @Autowired
+    private TransactionJournal transactionJournal;
+
+    @Autowired
+    private AccountIdentityCache accountIdentityCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     public Account getOrCreateAccount(CreateAccountRequestModel createAccountRequest) throws CreateAccountException {
@@ -72,8 +102,12 @@ public class AccountCrudServiceImpl implements AccountCrudService {
     }
 
     private Account createUserAndAccount(CreateAccountRequestModel createAccountRequest) {
-        User createdUser = saveUser(createAccountRequest);
-        return saveAccount(createdUser);
+        // a user left without an account keeps its name, so it is reused instead of saved a second time
+        User createdUser = Optional.ofNullable(userDao.findByName(createAccountRequest.name()))
+                .orElseGet(() -> saveUser(createAccountRequest));
+        Account createdAccount = saveAccount(createdUser);
+        cacheIdentity(createdUser.getName(), createdAccount);
+        return createdAccount;
     }
 
     private Account saveAccount(User user) {
@@ -95,12 +129,24 @@ public class AccountCrudServiceImpl implements AccountCrudService {
     }
 
     private Optional<Account> getAccountAfterExistsCheck(String userName) {
-        User user = userDao.findByName(userName);
-        if (Objects.isNull(user) || Objects.isNull(user.getId())) return Optional.empty();
+        Optional<AccountIdentity> cachedIdentity = accountIdentityCache.get(userName);
+        if (cachedIdentity.isPresent()) {
+            // only the ids are cached, the account itself is always read fresh
+            Optional<Account> cachedAccount = accountDao.findById(cachedIdentity.get().accountId());
+            if (cachedAccount.isPresent()) return cachedAccount;
+            accountIdentityCache.invalidate(userName);
+        }
+
+        Optional<Account> optionalAccount = accountDao.findWithUserByUserName(userName).map(AccountWithUser::account);
+        optionalAccount.ifPresent(account -> cacheIdentity(userName, account));
+        return optionalAccount;
+    }
 
-        Account account = accountDao.findByUserId(user.getId());
-        if (Objects.isNull(account)) return Optional.empty();
-        return Optional.of(account);
+    private void cacheIdentity(String userName, Account account) {
+        // canceled accounts are resolved from the database every time, so a cancel only has to invalidate once
+        if (account.getAccountStatus() == AccountStatus.AVAILABLE && Objects.nonNull(account.getAccountId())) {
+            accountIdentityCache.put(userName, new AccountIdentity(account.getAccountId(), account.getUserId()));
+        }
     }
 
     @Override
@@ -115,6 +161,7 @@ public class AccountCrudServiceImpl implements AccountCrudService {
             Optional<Account> optionalAccount = getAccountAfterExistsCheck(accountRequestModel.name());
             optionalAccount.ifPresent((act) -> {
                 accountDao.updateAccountStatus(act.getAccountId(), AccountStatus.CANCELED, act.getVersionId());
+                accountIdentityCache.invalidate(accountRequestModel.name());
             });
             return true;
         } catch (Exception ex) {
@@ -133,7 +180,41 @@ public class AccountCrudServiceImpl implements AccountCrudService {
     public List<Transaction> getTransaction(AccountRequestModel accountRequestModel) throws InvalidAccountException {
         if (validateAccountRequestModel(accountRequestModel)) {
             Optional<Account> optionalAccount = getAccountAfterExistsCheck(accountRequestModel.name());
-            return optionalAccount.orElseThrow(InvalidAccountException::new).getTransactions();
+            Long accountId = optionalAccount.orElseThrow(InvalidAccountException::new).getAccountId();
+            transactionJournal.flush();
+            return transactionDao.findByAccountId(accountId);
+        }
+        throw new InvalidAccountException();
+    }
+
+    @Override
+    public TransactionPage getTransactionPage(TransactionPageRequestModel transactionPageRequest) throws InvalidAccountException {
+        if (validateAccountRequestModel(new AccountRequestModel(transactionPageRequest.name())) && transactionPageRequest.limit() > 0) {
+            Optional<Account> optionalAccount = getAccountAfterExistsCheck(transactionPageRequest.name());
+            Long accountId = optionalAccount.orElseThrow(InvalidAccountException::new).getAccountId();
+            transactionJournal.flush();
+            int limit = Math.min(transactionPageRequest.limit(), MAX_TRANSACTION_PAGE_SIZE);
+            Long afterTransactionId = Objects.requireNonNullElse(transactionPageRequest.afterTransactionId(), 0L);
+            List<Transaction> transactions = transactionDao.findPageByAccountId(accountId, afterTransactionId,
+                    transactionPageRequest.fromDate(), transactionPageRequest.toDate(), Limit.of(limit + 1));
+            if (transactions.size() <= limit) return new TransactionPage(transactions, null);
+            List<Transaction> page = transactions.subList(0, limit);
+            return new TransactionPage(page, page.get(limit - 1).getTransactionId());
+        }
+        throw new InvalidAccountException();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <R> R streamTransactions(AccountRequestModel accountRequestModel, Function<Stream<Transaction>, R> handler) throws InvalidAccountException {
+        if (validateAccountRequestModel(accountRequestModel)) {
+            Optional<Account> optionalAccount = getAccountAfterExistsCheck(accountRequestModel.name());
+            Long accountId = optionalAccount.orElseThrow(InvalidAccountException::new).getAccountId();
+            transactionJournal.flush();
+            try (Stream<Transaction> transactions = transactionDao.streamByAccountId(accountId)) {
+                // detach every row once read so the persistence context does not grow with the history
+                return handler.apply(transactions.peek(entityManager::detach));
+            }
         }
         throw new InvalidAccountException();
     }
@@ -143,11 +224,44 @@ public class AccountCrudServiceImpl implements AccountCrudService {
         if (validateAccountRequestModel(accountRequestModel)) {
             Optional<Account> optionalAccount = getAccountAfterExistsCheck(accountRequestModel.name());
             Long accountId = optionalAccount.orElseThrow(InvalidAccountException::new).getAccountId();
-            return debtBalanceDao.findByFromAccountIdOrToAccountId(accountId, accountId);
+            return debtBalanceDao.findByDebtStatusAndAccountIdIn(DebtStatus.PENDING, List.of(accountId));
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<DebtDetail> getDebtDetails(AccountRequestModel accountRequestModel) throws InvalidAccountException {
+        if (validateAccountRequestModel(accountRequestModel)) {
+            Optional<Account> optionalAccount = getAccountAfterExistsCheck(accountRequestModel.name());
+            Long accountId = optionalAccount.orElseThrow(InvalidAccountException::new).getAccountId();
+            return debtBalanceDao.findDebtDetailsByAccountId(accountId);
         }
         return Collections.emptyList();
     }
 
+    @Override
+    public List<DebtDetail> getDebtDetails(Long accountId) {
+        return debtBalanceDao.findDebtDetailsByAccountId(accountId);
+    }
+
+    @Override
+    public long countDebts(DebtStatus debtStatus) {
+        return debtBalanceDao.countByDebtStatus(debtStatus);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AccountSummary getAccountSummary(AccountRequestModel accountRequestModel) throws InvalidAccountException {
+        if (validateAccountRequestModel(accountRequestModel)) {
+            AccountBalanceView balanceView = accountDao.findBalanceViewByUserName(accountRequestModel.name())
+                    .orElseThrow(InvalidAccountException::new);
+            List<DebtDetail> debts = debtBalanceDao.findDebtDetailsByAccountId(balanceView.accountId());
+            return new AccountSummary(balanceView.accountId(), accountRequestModel.name(), balanceView.balance(),
+                    balanceView.currency(), balanceView.accountStatus(), debts);
+        }
+        throw new InvalidAccountException();
+    }
+
     @Override
     public BigDecimal getBalance(AccountRequestModel accountRequestModel) throws InvalidAccountException {
         if (validateAccountRequestModel(accountRequestModel)) {
@@ -4,25 +4,41 @@ import com.xyzbank.atm.atm_management_service.account.Account;
 import com.xyzbank.atm.atm_management_service.account.AccountStatus;
 import com.xyzbank.atm.atm_management_service.dao.AccountDao;
 import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
-import com.xyzbank.atm.atm_management_service.dao.UserDao;
 import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
 import com.xyzbank.atm.atm_management_service.exception.DepositOperationException;
 import com.xyzbank.atm.atm_management_service.exception.InvalidAccountException;
 import com.xyzbank.atm.atm_management_service.exception.TransferOperationException;
+import com.xyzbank.atm.atm_management_service.exception.VersionConflictException;
 import com.xyzbank.atm.atm_management_service.exception.WithdrawOperationException;
+import com.xyzbank.atm.atm_management_service.model.AccountBalanceUpdate;
+import com.xyzbank.atm.atm_management_service.model.AccountWithUser;
+import com.xyzbank.atm.atm_management_service.model.DepositResult;
+import com.xyzbank.atm.atm_management_service.model.TransferCommand;
+import com.xyzbank.atm.atm_management_service.model.TransferCommandResult;
+import com.xyzbank.atm.atm_management_service.model.TransferResult;
+import com.xyzbank.atm.atm_management_service.model.WithdrawResult;
+import com.xyzbank.atm.atm_management_service.service.AccountLockManager;
 import com.xyzbank.atm.atm_management_service.service.AccountTransactionalService;
-import com.xyzbank.atm.atm_management_service.service.DebtRestructuringService;
-import com.xyzbank.atm.atm_management_service.user.User;
+import com.xyzbank.atm.atm_management_service.service.AccountUpdateMode;
+import com.xyzbank.atm.atm_management_service.service.DebtLedger;
+import com.xyzbank.atm.atm_management_service.service.DebtRestructuringScheduler;
+import com.xyzbank.atm.atm_management_service.service.TransactionJournal;
+import com.xyzbank.atm.atm_management_service.service.VersionConflictRetrier;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service("accountTransactionalService")
 @Slf4j
@@ -32,35 +48,45 @@ public class AccountTransactionalServiceImpl implements AccountTransactionalServ
     private AccountDao accountDao;
 
     @Autowired
-    private UserDao userDao;
+    private DebtBalanceDao debtBalanceDao;
 
     @Autowired
-    private DebtBalanceDao debtBalanceDao;
+    private DebtRestructuringScheduler debtRestructuringScheduler;
+
+    @Autowired
+    private DebtLedger debtLedger;
+
+    @Autowired
+    private TransactionJournal transactionJournal;
+
+    @Autowired
+    private VersionConflictRetrier versionConflictRetrier;
 
     @Autowired
-    private DebtRestructuringService debtRestructuringService;
+    private AccountLockManager accountLockManager;
 
     @Lazy
     @Autowired
     private AccountTransactionalServiceImpl self;
 
-    private static final int REVERT_ATTEMPTS = 5;
+    @Value("${atm.account.update-mode:DELTA}")
+    private AccountUpdateMode updateMode = AccountUpdateMode.DELTA;
 
-    public static final String TRANSFERRED_MESSAGE = "Transferred $%s to %s";
+    private static final String DEBT_SETTLEMENT_REMARKS = "debt settlement";
 
     @Override
-    public void deposit(Long accountId, BigDecimal amount, String remarks) throws DepositOperationException {
+    public DepositResult deposit(Long accountId, BigDecimal amount, String remarks) throws DepositOperationException {
         log.info("Start of deposit, accountId: {}, amount: {}, remarks: {}", accountId, amount, remarks);
         try {
             if (amount.compareTo(BigDecimal.ZERO) < 1) throw new DepositOperationException("Invalid Amount");
-            Account account = getAccountAfterValidation(accountId);
-            int updatedRows = accountDao.updateBalanceWithVersion(account.getAccountId(), account.getBalance().add(amount), account.getVersionId());
-            log.info("End of deposit, accountId: {}, amount: {}, remarks: {}, updatedRows: {}", accountId, amount, remarks, updatedRows);
-            if (updatedRows != 1) {
-                throw new DepositOperationException();
-            }
-            clearDebtBalancesIfAny(account, amount);
-            debtRestructuringService.restructureDebt();
+            DepositResult depositResult = updateMode == AccountUpdateMode.DELTA ? depositDelta(accountId, amount) : depositVersioned(accountId, amount);
+            log.info("End of deposit, accountId: {}, amount: {}, remarks: {}, newBalance: {}", accountId, amount, remarks, depositResult.balance());
+            transactionJournal.recordDeposit(accountId, amount, remarks);
+            List<TransferResult> debtSettlements = settleDebtsIfAny(accountId, amount);
+            debtRestructuringScheduler.markDirty(List.of(accountId));
+            if (debtSettlements.isEmpty()) return depositResult;
+            TransferResult lastSettlement = debtSettlements.get(debtSettlements.size() - 1);
+            return new DepositResult(accountId, amount, lastSettlement.fromBalance(), lastSettlement.fromVersionId(), debtSettlements);
         } catch (RuntimeException | DepositOperationException ex) {
             log.error("Error in deposit, accountId: {}, amount: {}, remarks: {}", accountId, amount, remarks, ex);
             throw new DepositOperationException(ex.getMessage());
@@ -71,19 +97,15 @@ public class AccountTransactionalServiceImpl implements AccountTransactionalServ
     }
 
     @Override
-    public void withdraw(Long accountId, BigDecimal amount, String remarks) throws WithdrawOperationException {
+    public WithdrawResult withdraw(Long accountId, BigDecimal amount, String remarks) throws WithdrawOperationException {
         log.info("Start of withdraw, accountId: {}, amount: {}, remarks: {}", accountId, amount, remarks);
         try {
-            Account account = getAccountAfterValidation(accountId);
-            if (account.getBalance().compareTo(amount) < 0)
-                throw new WithdrawOperationException("Insufficient balance");
-
-            int updatedRows = accountDao.updateBalanceWithVersion(account.getAccountId(), account.getBalance().subtract(amount), account.getVersionId());
-            log.info("End of withdraw, accountId: {}, amount: {}, remarks: {}, updatedRows: {}", accountId, amount, remarks, updatedRows);
-            if (updatedRows != 1) {
-                throw new WithdrawOperationException();
-            }
-            debtRestructuringService.restructureDebt();
+            if (amount.compareTo(BigDecimal.ZERO) < 1) throw new WithdrawOperationException("Invalid Amount");
+            WithdrawResult withdrawResult = updateMode == AccountUpdateMode.DELTA ? withdrawDelta(accountId, amount) : withdrawVersioned(accountId, amount);
+            log.info("End of withdraw, accountId: {}, amount: {}, remarks: {}, newBalance: {}", accountId, amount, remarks, withdrawResult.balance());
+            transactionJournal.recordWithdraw(accountId, amount, remarks);
+            debtRestructuringScheduler.markDirty(List.of(accountId));
+            return withdrawResult;
         } catch (RuntimeException | WithdrawOperationException ex) {
             log.error("Error in withdraw, accountId: {}, amount: {}, remarks: {}", accountId, amount, remarks, ex);
             throw new WithdrawOperationException(ex.getMessage());
@@ -93,18 +115,78 @@ public class AccountTransactionalServiceImpl implements AccountTransactionalServ
         }
     }
 
+    private DepositResult depositDelta(Long accountId, BigDecimal amount) throws InvalidAccountException {
+        AccountBalanceUpdate balanceUpdate = accountDao.addToBalance(accountId, amount).orElseThrow(InvalidAccountException::new);
+        return new DepositResult(accountId, amount, balanceUpdate.getBalance(), balanceUpdate.getVersionId(), List.of());
+    }
+
+    private DepositResult depositVersioned(Long accountId, BigDecimal amount) throws InvalidAccountException {
+        try (AccountLockManager.Lease lease = accountLockManager.lock(accountId)) {
+            return versionConflictRetrier.execute(attempt -> {
+                Account account = getAccountAfterValidation(accountId);
+                BigDecimal newBalance = account.getBalance().add(amount);
+                int updatedRows = accountDao.updateBalanceWithVersion(account.getAccountId(), newBalance, account.getVersionId());
+                log.info("deposit operation, accountId: {}, amount: {}, attempt: {}, updatedRows: {}", accountId, amount, attempt, updatedRows);
+                if (updatedRows != 1) throw new VersionConflictException(accountId);
+                return new DepositResult(accountId, amount, newBalance, account.getVersionId() + 1, List.of());
+            });
+        }
+    }
+
+    /**
+     * The balance check is part of the update statement, so the account is only read again when the update did not
+     * match, to tell an unknown or unavailable account from an insufficient balance.
+     */
+    private WithdrawResult withdrawDelta(Long accountId, BigDecimal amount) throws InvalidAccountException, WithdrawOperationException {
+        Optional<AccountBalanceUpdate> balanceUpdate = accountDao.subtractFromBalance(accountId, amount);
+        if (balanceUpdate.isPresent()) {
+            return new WithdrawResult(accountId, amount, balanceUpdate.get().getBalance(), balanceUpdate.get().getVersionId());
+        }
+        getAccountAfterValidation(accountId);
+        throw new WithdrawOperationException("Insufficient balance");
+    }
+
+    private WithdrawResult withdrawVersioned(Long accountId, BigDecimal amount) throws Exception {
+        try (AccountLockManager.Lease lease = accountLockManager.lock(accountId)) {
+            return versionConflictRetrier.execute(attempt -> {
+                Account account = getAccountAfterValidation(accountId);
+                if (account.getBalance().compareTo(amount) < 0)
+                    throw new WithdrawOperationException("Insufficient balance");
+
+                BigDecimal newBalance = account.getBalance().subtract(amount);
+                int updatedRows = accountDao.updateBalanceWithVersion(account.getAccountId(), newBalance, account.getVersionId());
+                log.info("withdraw operation, accountId: {}, amount: {}, attempt: {}, updatedRows: {}", accountId, amount, attempt, updatedRows);
+                if (updatedRows != 1) throw new VersionConflictException(accountId);
+                return new WithdrawResult(accountId, amount, newBalance, account.getVersionId() + 1);
+            });
+        }
+    }
+
     @Override
-    public void transfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String remarks) throws InvalidAccountException, TransferOperationException {
+    public TransferResult transfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String remarks) throws InvalidAccountException, TransferOperationException {
         log.info("Start of transfer, fromAccountId: {}, toAccountId: {}, amount: {}, remarks: {}", fromAccountId, toAccountId, amount, remarks);
         try {
-            Account fromAccount = getAccountAfterValidation(fromAccountId);
-            Account toAccount = getAccountAfterValidation(toAccountId);
-            if (!checkAndAddOutStandingBalance(fromAccountId, toAccountId, amount)) {
-                BigDecimal transferredAmount = self.performTransferOperationWithTransaction(fromAccount, toAccount, amount, remarks);
-                User user = userDao.findById(toAccount.getUserId()).get();
-                System.out.println(String.format(TRANSFERRED_MESSAGE, transferredAmount, user.getName()));
+            TransferResult transferResult;
+            // held from the reads to the last write, and released before debt restructuring
+            try (AccountLockManager.Lease lease = accountLockManager.lock(fromAccountId, toAccountId)) {
+                Account fromAccount = getAccountAfterValidation(fromAccountId);
+                Account toAccount = getAccountAfterValidation(toAccountId);
+                if (checkAndAddOutStandingBalance(fromAccountId, toAccountId, amount)) {
+                    transferResult = new TransferResult(fromAccountId, toAccountId, BigDecimal.ZERO, amount,
+                            fromAccount.getBalance(), fromAccount.getVersionId(), true, null);
+                } else {
+                    // the transactional transfer is retried as a whole, on fresh copies of both accounts after a conflict
+                    transferResult = versionConflictRetrier.execute(attempt -> self.performTransferOperationWithTransaction(
+                            attempt == 1 ? fromAccount : getAccountAfterValidation(fromAccountId),
+                            attempt == 1 ? toAccount : getAccountAfterValidation(toAccountId), amount, remarks));
+                }
             }
-            debtRestructuringService.restructureDebt();
+            // journaled once the transfer committed, so a rolled back or retried attempt leaves no entry
+            if (transferResult.transferredAmount().signum() > 0) {
+                transactionJournal.recordTransfer(fromAccountId, toAccountId, transferResult.transferredAmount(), remarks);
+            }
+            debtRestructuringScheduler.markDirty(List.of(fromAccountId, toAccountId));
+            return transferResult;
         } catch (TransferOperationException | RuntimeException | InvalidAccountException ex) {
             log.error("Error in transfer, fromAccountId: {}, toAccountId: {}, amount: {}, remarks: {}", fromAccountId, toAccountId, amount, remarks, ex);
             throw new TransferOperationException(ex.getMessage());
@@ -114,53 +196,227 @@ public class AccountTransactionalServiceImpl implements AccountTransactionalServ
         }
     }
 
-    @Transactional
-    public BigDecimal performTransferOperationWithTransaction(Account fromAccount, Account toAccount, BigDecimal amount, String remarks) throws TransferOperationException {
+    @Transactional(rollbackFor = Exception.class)
+    public TransferResult performTransferOperationWithTransaction(Account fromAccount, Account toAccount, BigDecimal amount, String remarks) throws TransferOperationException {
         BigDecimal balancedAmount = fromAccount.getBalance().compareTo(amount) < 0 ? fromAccount.getBalance() : amount;
         BigDecimal withdrawnAmount = fromAccount.getBalance().subtract(balancedAmount);
         int withdrawnRows = accountDao.updateBalanceWithVersion(fromAccount.getAccountId(), withdrawnAmount, fromAccount.getVersionId());
         log.info("transfer operation, fromAccountId: {}, toAccountId: {}, balancedAmount: {}, amount: {}, remarks: {}, withdrawnRows: {}", fromAccount.getAccountId(), toAccount.getAccountId(), balancedAmount, amount, remarks, withdrawnRows);
         if (withdrawnRows == 1) {
-            BigDecimal depositedAmount = toAccount.getBalance().add(balancedAmount);
-            int depositedRows = accountDao.updateBalanceWithVersion(toAccount.getAccountId(), depositedAmount, toAccount.getVersionId());
+            int depositedRows = creditTransfer(toAccount, balancedAmount);
             log.info("End of transfer, fromAccountId: {}, toAccountId: {}, balancedAmount: {}, amount: {}, remarks: {}, depositedRows: {}", fromAccount.getAccountId(), toAccount.getAccountId(), balancedAmount, amount, remarks, depositedRows);
             if (depositedRows != 1) {
-                throw new TransferOperationException();
+                throw new VersionConflictException(toAccount.getAccountId());
             }
-            self.addDebtIfNeeded(fromAccount, toAccount, amount.subtract(balancedAmount));
+            debtLedger.recordDebt(fromAccount.getAccountId(), toAccount.getAccountId(), amount.subtract(balancedAmount));
         } else {
-            throw new TransferOperationException();
+            throw new VersionConflictException(fromAccount.getAccountId());
+        }
+        return new TransferResult(fromAccount.getAccountId(), toAccount.getAccountId(), balancedAmount, amount.subtract(balancedAmount),
+                withdrawnAmount, fromAccount.getVersionId() + 1, false, null);
+    }
+
+    /**
+     * In delta mode the credit leg does not depend on the balance read before the transfer, so concurrent transfers
+     * into the same account do not conflict with each other.
+     */
+    private int creditTransfer(Account toAccount, BigDecimal amount) throws TransferOperationException {
+        if (updateMode == AccountUpdateMode.VERSIONED) {
+            return accountDao.updateBalanceWithVersion(toAccount.getAccountId(), toAccount.getBalance().add(amount), toAccount.getVersionId());
+        }
+        accountDao.addToBalance(toAccount.getAccountId(), amount).orElseThrow(() -> new TransferOperationException("Invalid account id"));
+        return 1;
+    }
+
+    @Override
+    public List<TransferCommandResult> transferBatch(List<TransferCommand> transferCommands) {
+        log.info("Start of transferBatch, commands: {}", transferCommands.size());
+        TransferCommandResult[] results = new TransferCommandResult[transferCommands.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        Set<Long> accountIds = new TreeSet<>();
+        for (int idx = 0; idx < results.length; idx++) {
+            TransferCommand command = transferCommands.get(idx);
+            if (Objects.isNull(command.fromAccountId()) || Objects.isNull(command.toAccountId()) || command.fromAccountId().equals(command.toAccountId())) {
+                results[idx] = TransferCommandResult.failed(command, "Invalid account id");
+            } else if (Objects.isNull(command.amount()) || command.amount().compareTo(BigDecimal.ZERO) < 1) {
+                results[idx] = TransferCommandResult.failed(command, "Invalid Amount");
+            } else {
+                validIndexes.add(idx);
+                accountIds.add(command.fromAccountId());
+                accountIds.add(command.toAccountId());
+            }
+        }
+        List<TransferCommand> validCommands = validIndexes.stream().map(transferCommands::get).toList();
+        try (AccountLockManager.Lease lease = accountLockManager.lock(accountIds.toArray(Long[]::new))) {
+            List<TransferCommandResult> batchResults = versionConflictRetrier.execute(attempt -> self.performTransferBatchWithTransaction(validCommands));
+            for (int idx = 0; idx < validIndexes.size(); idx++) {
+                results[validIndexes.get(idx)] = batchResults.get(idx);
+            }
+        } catch (RuntimeException ex) {
+            log.error("Error in transferBatch, commands: {}", transferCommands.size(), ex);
+            validIndexes.forEach(idx -> results[idx] = TransferCommandResult.failed(transferCommands.get(idx), ex.getMessage()));
+        }
+        // journaled only once the batch is committed
+        for (TransferCommandResult result : results) {
+            if (result.isSuccess() && result.transferredAmount().signum() > 0) {
+                TransferCommand command = result.command();
+                transactionJournal.recordTransfer(command.fromAccountId(), command.toAccountId(), result.transferredAmount(), command.remarks());
+            }
+        }
+        if (!accountIds.isEmpty()) debtRestructuringScheduler.markDirty(accountIds);
+        log.info("End of transferBatch, commands: {}, failed: {}", results.length, Arrays.stream(results).filter(r -> !r.isSuccess()).count());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Applies the commands to the balances of the managed accounts and lets the flush write every changed account
+     * once, as a batch of versioned updates, together with the debts. New debts are netted into the one pending debt
+     * of their pair of accounts, as in {@link DebtLedger}.
+     */
+    @Transactional
+    public List<TransferCommandResult> performTransferBatchWithTransaction(List<TransferCommand> transferCommands) {
+        Set<Long> accountIds = new HashSet<>();
+        transferCommands.forEach(command -> {
+            accountIds.add(command.fromAccountId());
+            accountIds.add(command.toAccountId());
+        });
+        Map<Long, Account> accounts = accountDao.findAllById(accountIds).stream()
+                .filter(account -> AccountStatus.AVAILABLE.equals(account.getAccountStatus()))
+                .collect(Collectors.toMap(Account::getAccountId, Function.identity()));
+        Map<Set<Long>, DebtBalance> pairDebts = new HashMap<>();
+        List<DebtBalance> clearedDebts = new ArrayList<>();
+        for (DebtBalance debtBalance : debtBalanceDao.findPendingByAccountIdInForUpdate(accountIds)) {
+            pairDebts.merge(Set.of(debtBalance.getFromAccountId(), debtBalance.getToAccountId()), debtBalance, (pairDebt, duplicate) -> {
+                pairDebt.netDebt(duplicate.getFromAccountId(), duplicate.getOutStandingBalance().negate());
+                duplicate.clear();
+                clearedDebts.add(duplicate);
+                return pairDebt;
+            });
+        }
+
+        List<TransferCommandResult> results = new ArrayList<>(transferCommands.size());
+        for (TransferCommand command : transferCommands) {
+            Account fromAccount = accounts.get(command.fromAccountId());
+            Account toAccount = accounts.get(command.toAccountId());
+            Set<Long> pair = Set.of(command.fromAccountId(), command.toAccountId());
+            DebtBalance pairDebt = pairDebts.get(pair);
+            if (Objects.isNull(fromAccount) || Objects.isNull(toAccount)) {
+                results.add(TransferCommandResult.failed(command, "Invalid account id"));
+            } else if (Objects.nonNull(pairDebt) && pairDebt.getFromAccountId().equals(command.toAccountId())) {
+                // same as a single transfer: the amount is offset against what the receiver owes the sender
+                netPairDebt(pairDebts, clearedDebts, pair, command, command.amount());
+                results.add(TransferCommandResult.succeeded(command, BigDecimal.ZERO, command.amount()));
+            } else {
+                BigDecimal balancedAmount = fromAccount.getBalance().min(command.amount());
+                BigDecimal debtAmount = command.amount().subtract(balancedAmount);
+                fromAccount.setBalance(fromAccount.getBalance().subtract(balancedAmount));
+                toAccount.setBalance(toAccount.getBalance().add(balancedAmount));
+                if (debtAmount.signum() > 0) netPairDebt(pairDebts, clearedDebts, pair, command, debtAmount);
+                results.add(TransferCommandResult.succeeded(command, balancedAmount, debtAmount));
+            }
+        }
+        flushAccounts();
+        debtBalanceDao.saveAll(pairDebts.values());
+        debtBalanceDao.saveAll(clearedDebts);
+        return results;
+    }
+
+    private static void netPairDebt(Map<Set<Long>, DebtBalance> pairDebts, List<DebtBalance> clearedDebts, Set<Long> pair,
+                                    TransferCommand command, BigDecimal debtAmount) {
+        DebtBalance pairDebt = pairDebts.get(pair);
+        if (Objects.isNull(pairDebt)) {
+            pairDebts.put(pair, DebtBalance.buildDebtBalanceObject(command.fromAccountId(), command.toAccountId(), debtAmount));
+        } else if (pairDebt.netDebt(command.fromAccountId(), debtAmount)) {
+            pairDebts.remove(pair);
+            pairDebt.clear();
+            if (Objects.nonNull(pairDebt.getDebtId())) clearedDebts.add(pairDebt);
         }
-        return balancedAmount;
     }
 
     private boolean checkAndAddOutStandingBalance(Long fromAccountId, Long toAccountId, BigDecimal amount) {
-        List<DebtBalance> debtBalanceList = debtBalanceDao.findByFromAccountIdAndToAccountId(toAccountId, fromAccountId);
+        List<DebtBalance> debtBalanceList = debtBalanceDao.findByFromAccountIdAndToAccountIdAndDebtStatus(toAccountId, fromAccountId, DebtStatus.PENDING);
         if (!CollectionUtils.isEmpty(debtBalanceList)) {
-            debtBalanceDao.saveAndFlush(DebtBalance.buildDebtBalanceObject(fromAccountId, toAccountId, amount));
+            debtLedger.recordDebt(fromAccountId, toAccountId, amount);
         }
         return !CollectionUtils.isEmpty(debtBalanceList);
     }
 
-    private BigDecimal clearDebtBalancesIfAny(Account account, BigDecimal amount) throws TransferOperationException, InvalidAccountException {
-        BigDecimal remainingAmount = amount;
-        List<DebtBalance> debtBalances = debtBalanceDao.findByFromAccountId(account.getAccountId());
+    /**
+     * Pays the debts of the account off from the deposited amount. The whole payoff runs as one transaction under the
+     * locks of the account and all its creditors, and is journaled once committed.
+     */
+    private List<TransferResult> settleDebtsIfAny(Long accountId, BigDecimal amount) throws Exception {
+        List<DebtBalance> debtBalances = debtBalanceDao.findByFromAccountIdAndDebtStatus(accountId, DebtStatus.PENDING);
+        if (debtBalances.isEmpty()) return List.of();
+        Set<Long> accountIds = new TreeSet<>();
+        accountIds.add(accountId);
+        debtBalances.forEach(debtBalance -> accountIds.add(debtBalance.getToAccountId()));
+        List<TransferResult> debtSettlements;
+        try (AccountLockManager.Lease lease = accountLockManager.lock(accountIds.toArray(Long[]::new))) {
+            debtSettlements = versionConflictRetrier.execute(attempt -> self.performDebtSettlementWithTransaction(accountId, amount));
+        }
+        for (TransferResult settlement : debtSettlements) {
+            transactionJournal.recordTransfer(settlement.fromAccountId(), settlement.toAccountId(), settlement.transferredAmount(), DEBT_SETTLEMENT_REMARKS);
+        }
+        return debtSettlements;
+    }
+
+    /**
+     * Plans the payoff of the pending debts of the account in memory, oldest debt first, up to the deposited amount.
+     * Every credit and the single debit are then written by one flush, as a batch of versioned updates, together with
+     * the reduced debts. Creditors that are no longer available are skipped. The creditors are loaded with their
+     * users, so each settlement carries the name of its creditor.
+     */
+    @Transactional
+    public List<TransferResult> performDebtSettlementWithTransaction(Long accountId, BigDecimal amount) {
+        List<DebtBalance> debtBalances = debtBalanceDao.findPendingByAccountIdInForUpdate(List.of(accountId)).stream()
+                .filter(debtBalance -> debtBalance.getFromAccountId().equals(accountId))
+                .toList();
+        Set<Long> accountIds = new HashSet<>();
+        accountIds.add(accountId);
+        debtBalances.forEach(debtBalance -> accountIds.add(debtBalance.getToAccountId()));
+        Map<Long, AccountWithUser> accounts = accountDao.findAllWithUserByAccountIdIn(accountIds).stream()
+                .filter(accountWithUser -> AccountStatus.AVAILABLE.equals(accountWithUser.account().getAccountStatus()))
+                .collect(Collectors.toMap(accountWithUser -> accountWithUser.account().getAccountId(), Function.identity()));
+        if (!accounts.containsKey(accountId)) return List.of();
+        Account fromAccount = accounts.get(accountId).account();
+
+        BigDecimal remainingAmount = amount.min(fromAccount.getBalance());
+        List<DebtPayment> debtPayments = new ArrayList<>();
         for (DebtBalance debtBalance : debtBalances) {
-            if (debtBalance.getOutStandingBalance().compareTo(BigDecimal.ZERO) < 0) {
-                boolean isOverFlow = remainingAmount.compareTo(debtBalance.getOutStandingBalance().abs()) < 0;
-                BigDecimal withDrawnAmount = isOverFlow ? remainingAmount : debtBalance.getOutStandingBalance().abs();
-                transfer(debtBalance.getFromAccountId(), debtBalance.getToAccountId(), withDrawnAmount, "");
-                debtBalanceDao.saveAndFlush(DebtBalance.buildDebtBalanceObject(debtBalance.getToAccountId(), debtBalance.getFromAccountId(), withDrawnAmount));
-                remainingAmount = remainingAmount.subtract(withDrawnAmount);
-                if (isOverFlow) break;
-            }
+            AccountWithUser creditor = accounts.get(debtBalance.getToAccountId());
+            BigDecimal paidAmount = remainingAmount.min(debtBalance.getOutStandingBalance().negate());
+            if (Objects.isNull(creditor) || paidAmount.signum() <= 0) continue;
+            Account toAccount = creditor.account();
+            fromAccount.setBalance(fromAccount.getBalance().subtract(paidAmount));
+            toAccount.setBalance(toAccount.getBalance().add(paidAmount));
+            if (debtBalance.netDebt(toAccount.getAccountId(), paidAmount)) debtBalance.clear();
+            debtPayments.add(new DebtPayment(toAccount.getAccountId(), creditor.user().getName(), paidAmount, fromAccount.getBalance()));
+            remainingAmount = remainingAmount.subtract(paidAmount);
         }
-        return remainingAmount;
+        if (debtPayments.isEmpty()) return List.of();
+        flushAccounts();
+        debtBalanceDao.saveAll(debtBalances);
+        log.info("debt settlement, accountId: {}, amount: {}, debts: {}, payments: {}", accountId, amount, debtBalances.size(), debtPayments.size());
+        return debtPayments.stream()
+                .map(payment -> new TransferResult(accountId, payment.toAccountId(), payment.amount(), BigDecimal.ZERO,
+                        payment.fromBalance(), fromAccount.getVersionId(), false, payment.toUserName()))
+                .toList();
     }
 
-    public void addDebtIfNeeded(Account fromAccount, Account toAccount, BigDecimal debtAmount) {
-        if (debtAmount.compareTo(BigDecimal.ZERO) != 0) {
-            debtBalanceDao.saveAndFlush(DebtBalance.buildDebtBalanceObject(fromAccount.getAccountId(), toAccount.getAccountId(), debtAmount));
+    private record DebtPayment(Long toAccountId, String toUserName, BigDecimal amount, BigDecimal fromBalance) {
+    }
+
+    /**
+     * Writes the changed managed accounts; a versioned update that matched no row is reported as a version conflict
+     * so the whole operation can be retried.
+     */
+    private void flushAccounts() {
+        try {
+            accountDao.flush();
+        } catch (OptimisticLockingFailureException ex) {
+            Object identifier = ex instanceof ObjectOptimisticLockingFailureException objectEx ? objectEx.getIdentifier() : null;
+            throw new VersionConflictException(identifier instanceof Long accountId ? accountId : null);
         }
     }
 
@@ -0,0 +1,127 @@
+package com.xyzbank.atm.atm_management_service.service.impl;
+
+import com.xyzbank.atm.atm_management_service.dao.TransactionDao;
+import com.xyzbank.atm.atm_management_service.service.TransactionJournal;
+import com.xyzbank.atm.atm_management_service.transaction.Transaction;
+import com.xyzbank.atm.atm_management_service.transaction.TransactionType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Buffers journal entries in memory and appends them in JDBC batches, either once {@code batchSize} entries are
+ * pending or every {@code flushIntervalMs}, so a money operation only pays for an in-memory append. An entry that
+ * cannot be written is logged to the {@code BufferedTransactionJournal.deadLetter} logger and dropped.
+ */
+@Service("transactionJournal")
+@Slf4j
+public class BufferedTransactionJournal implements TransactionJournal {
+
+    private static final Logger DEAD_LETTER_LOG = LoggerFactory.getLogger(BufferedTransactionJournal.class.getName() + ".deadLetter");
+
+    private final TransactionDao transactionDao;
+
+    private final int batchSize;
+
+    private final Queue<Transaction> pendingTransactions = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transaction-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BufferedTransactionJournal(TransactionDao transactionDao,
+                                      @Value("${atm.journal.batch-size:100}") int batchSize,
+                                      @Value("${atm.journal.flush-interval-ms:500}") long flushIntervalMs) {
+        this.transactionDao = transactionDao;
+        this.batchSize = batchSize;
+        executorService.scheduleWithFixedDelay(this::writePending, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+        executorService.shutdown();
+    }
+
+    @Override
+    public void recordDeposit(Long accountId, BigDecimal amount, String remarks) {
+        append(Transaction.buildTransactionObject(accountId, accountId, amount, TransactionType.CREDIT, remarks));
+    }
+
+    @Override
+    public void recordWithdraw(Long accountId, BigDecimal amount, String remarks) {
+        append(Transaction.buildTransactionObject(accountId, accountId, amount, TransactionType.DEBIT, remarks));
+    }
+
+    @Override
+    public void recordTransfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String remarks) {
+        append(Transaction.buildTransactionObject(fromAccountId, toAccountId, amount, TransactionType.DEBIT, remarks));
+        append(Transaction.buildTransactionObject(fromAccountId, toAccountId, amount, TransactionType.CREDIT, remarks));
+    }
+
+    @Override
+    public void flush() {
+        try {
+            executorService.submit(this::writePending).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while flushing the transaction journal", ex);
+        } catch (ExecutionException ex) {
+            log.error("Error in flushing the transaction journal", ex);
+        }
+    }
+
+    private void append(Transaction transaction) {
+        pendingTransactions.add(transaction);
+        if (pendingCount.incrementAndGet() % batchSize == 0) {
+            executorService.execute(this::writePending);
+        }
+    }
+
+    private void writePending() {
+        while (!pendingTransactions.isEmpty()) {
+            List<Transaction> batch = new ArrayList<>(batchSize);
+            Transaction transaction;
+            while (batch.size() < batchSize && (transaction = pendingTransactions.poll()) != null) {
+                batch.add(transaction);
+            }
+            try {
+                transactionDao.saveAll(batch);
+            } catch (RuntimeException ex) {
+                log.error("Error in writing transaction journal batch, writing it entry by entry, size: {}", batch.size(), ex);
+                writeOneByOne(batch);
+            }
+            pendingCount.addAndGet(-batch.size());
+        }
+    }
+
+    /**
+     * The failed batch was rolled back as a whole, so only the entries that also fail on their own are dropped,
+     * instead of one bad entry blocking every later one.
+     */
+    private void writeOneByOne(List<Transaction> batch) {
+        for (Transaction transaction : batch) {
+            // the id allocated by the rolled back batch was never written
+            transaction.setTransactionId(null);
+            try {
+                transactionDao.save(transaction);
+            } catch (RuntimeException ex) {
+                DEAD_LETTER_LOG.error("Dropped transaction journal entry: {}", transaction, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.xyzbank.atm.atm_management_service.service.impl;
+
+import com.xyzbank.atm.atm_management_service.model.AccountContention;
+import com.xyzbank.atm.atm_management_service.service.ContentionMetrics;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service("contentionMetrics")
+public class ContentionMetricsImpl implements ContentionMetrics {
+
+    private final Map<Long, Counters> countersByAccountId = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordConflict(Long accountId) {
+        counters(accountId).conflicts.increment();
+    }
+
+    @Override
+    public void recordRetry(Long accountId) {
+        counters(accountId).retries.increment();
+    }
+
+    @Override
+    public void recordFailure(Long accountId) {
+        counters(accountId).failures.increment();
+    }
+
+    @Override
+    public AccountContention getContention(Long accountId) {
+        Counters counters = countersByAccountId.get(accountId);
+        return counters == null ? new AccountContention(accountId, 0, 0, 0) : counters.snapshot(accountId);
+    }
+
+    @Override
+    public List<AccountContention> getHottestAccounts(int limit) {
+        return countersByAccountId.entrySet().stream()
+                .map(e -> e.getValue().snapshot(e.getKey()))
+                .sorted(Comparator.comparingLong(AccountContention::conflicts).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private Counters counters(Long accountId) {
+        return countersByAccountId.computeIfAbsent(accountId, k -> new Counters());
+    }
+
+    private static final class Counters {
+
+        private final LongAdder conflicts = new LongAdder();
+
+        private final LongAdder retries = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private AccountContention snapshot(Long accountId) {
+            return new AccountContention(accountId, conflicts.sum(), retries.sum(), failures.sum());
+        }
+    }
+}
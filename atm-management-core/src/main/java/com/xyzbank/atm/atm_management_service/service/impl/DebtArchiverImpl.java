@@ -0,0 +1,122 @@
+package com.xyzbank.atm.atm_management_service.service.impl;
+
+import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
+import com.xyzbank.atm.atm_management_service.dao.DebtBalanceHistoryDao;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalanceHistory;
+import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
+import com.xyzbank.atm.atm_management_service.service.DebtArchiver;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Moves cleared debts out of the debt table into the debt history every {@code intervalMs}, in batches of
+ * {@code batchSize}, so the debt table only keeps the pending debts the money operations read.
+ */
+@Service("debtArchiver")
+@Slf4j
+public class DebtArchiverImpl implements DebtArchiver {
+
+    private final DebtBalanceDao debtBalanceDao;
+
+    private final DebtBalanceHistoryDao debtBalanceHistoryDao;
+
+    private final int batchSize;
+
+    private final long intervalMs;
+
+    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "debt-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Lazy
+    @Autowired
+    private DebtArchiverImpl self;
+
+    public DebtArchiverImpl(DebtBalanceDao debtBalanceDao,
+                            DebtBalanceHistoryDao debtBalanceHistoryDao,
+                            @Value("${atm.debt.archive.batch-size:500}") int batchSize,
+                            @Value("${atm.debt.archive.interval-ms:5000}") long intervalMs) {
+        this.debtBalanceDao = debtBalanceDao;
+        this.debtBalanceHistoryDao = debtBalanceHistoryDao;
+        this.batchSize = batchSize;
+        this.intervalMs = intervalMs;
+    }
+
+    /**
+     * The passes call the transactional proxy of this bean, so they are only scheduled once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executorService.scheduleWithFixedDelay(this::runPass, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executorService.shutdown();
+    }
+
+    @Override
+    public int archiveClearedDebts() {
+        try {
+            return executorService.submit(this::archiveAll).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while archiving cleared debts", ex);
+        } catch (ExecutionException ex) {
+            log.error("Error in archiving cleared debts", ex);
+        }
+        return 0;
+    }
+
+    /**
+     * Copies one batch of the oldest cleared debts to the debt history and deletes them from the debt table. Pending
+     * debts are never read here, so the pass does not contend with the money operations.
+     *
+     * @return the number of debts archived.
+     */
+    @Transactional
+    public int archiveBatch() {
+        List<DebtBalance> clearedDebts = debtBalanceDao.findByDebtStatusOrderByDebtId(DebtStatus.CLEARED, Limit.of(batchSize));
+        if (clearedDebts.isEmpty()) return 0;
+        LocalDateTime archivedDate = LocalDateTime.now();
+        debtBalanceHistoryDao.saveAll(clearedDebts.stream()
+                .map(debtBalance -> DebtBalanceHistory.buildDebtBalanceHistoryObject(debtBalance, archivedDate))
+                .toList());
+        debtBalanceDao.deleteAllByIdInBatch(clearedDebts.stream().map(DebtBalance::getDebtId).toList());
+        return clearedDebts.size();
+    }
+
+    private int archiveAll() {
+        int archived = 0;
+        int batchArchived;
+        do {
+            batchArchived = self.archiveBatch();
+            archived += batchArchived;
+        } while (batchArchived == batchSize);
+        if (archived > 0) log.info("Archived cleared debts, count: {}", archived);
+        return archived;
+    }
+
+    private void runPass() {
+        try {
+            archiveAll();
+        } catch (RuntimeException ex) {
+            log.error("Error in debt archiving pass", ex);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.xyzbank.atm.atm_management_service.service.impl;
+
+import com.xyzbank.atm.atm_management_service.service.DebtRestructuringScheduler;
+import com.xyzbank.atm.atm_management_service.service.DebtRestructuringService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service("debtRestructuringScheduler")
+@Slf4j
+public class DebtRestructuringSchedulerImpl implements DebtRestructuringScheduler {
+
+    private final DebtRestructuringService debtRestructuringService;
+
+    private final boolean async;
+
+    private final long maxDelayMs;
+
+    private final Set<Long> dirtyAccountIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean passScheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService executorService;
+
+    public DebtRestructuringSchedulerImpl(DebtRestructuringService debtRestructuringService,
+                                          @Value("${atm.debt.restructuring.async:true}") boolean async,
+                                          @Value("${atm.debt.restructuring.max-delay-ms:200}") long maxDelayMs) {
+        this.debtRestructuringService = debtRestructuringService;
+        this.async = async;
+        this.maxDelayMs = maxDelayMs;
+        this.executorService = async ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "debt-restructuring");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executorService != null) {
+            flush();
+            executorService.shutdown();
+        }
+    }
+
+    @Override
+    public void markDirty(Collection<Long> accountIds) {
+        dirtyAccountIds.addAll(accountIds);
+        if (!async) {
+            // the money operation has already committed, so a locked debt must not fail it
+            runPass();
+            return;
+        }
+        schedulePass();
+    }
+
+    @Override
+    public void flush() {
+        if (!async) {
+            runPass();
+            return;
+        }
+        try {
+            executorService.submit(this::runPass).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while flushing debt restructuring", ex);
+        } catch (ExecutionException ex) {
+            log.error("Error in flushing debt restructuring", ex);
+        }
+    }
+
+    private void runPass() {
+        passScheduled.set(false);
+        List<Long> accountIds = new ArrayList<>(dirtyAccountIds);
+        if (accountIds.isEmpty()) return;
+        dirtyAccountIds.removeAll(accountIds);
+        try {
+            log.info("Start of debt restructuring pass, accountIds: {}", accountIds.size());
+            debtRestructuringService.restructureDebt(accountIds);
+        } catch (PessimisticLockingFailureException ex) {
+            // the whole pass was rolled back because a money operation held one of the debts, the next pass retries it
+            log.info("Debt restructuring pass deferred, a debt is locked, accountIds: {}", accountIds.size());
+            dirtyAccountIds.addAll(accountIds);
+            if (async) schedulePass();
+        } catch (RuntimeException ex) {
+            // retrying would fail the same way, the debts stay pending unrestructured until the accounts are touched again
+            log.error("Error in debt restructuring pass, dropping accountIds: {}", accountIds, ex);
+        }
+    }
+
+    private void schedulePass() {
+        if (passScheduled.compareAndSet(false, true)) {
+            executorService.schedule(this::runPass, maxDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+}
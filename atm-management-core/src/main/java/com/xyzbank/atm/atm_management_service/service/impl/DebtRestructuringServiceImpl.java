@@ -2,73 +2,125 @@ package com.xyzbank.atm.atm_management_service.service.impl;
 
 import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
 import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
-import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
+import com.xyzbank.atm.atm_management_service.model.SettlementEdge;
+import com.xyzbank.atm.atm_management_service.service.DebtRestructuringMode;
 import com.xyzbank.atm.atm_management_service.service.DebtRestructuringService;
+import com.xyzbank.atm.atm_management_service.service.DebtSettlementEngine;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
-import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 public class DebtRestructuringServiceImpl implements DebtRestructuringService {
 
     @Autowired
     private DebtBalanceDao debtBalanceDao;
 
+    @Autowired
+    private DebtSettlementEngine debtSettlementEngine;
+
+    @Value("${atm.debt.restructuring.mode:INCREMENTAL}")
+    private DebtRestructuringMode restructuringMode = DebtRestructuringMode.INCREMENTAL;
+
     @Override
+    @Transactional
     public void restructureDebt() {
-        List<DebtBalance> debtBalanceList = debtBalanceDao.findByDebtStatus(DebtStatus.PENDING);
-        Map<Long, BigDecimal> debtBalanceMap = generateDebtBalanceMap(debtBalanceList);
-        List<Long> userList = debtBalanceMap.keySet().stream().toList();
-        List<BigDecimal> balanceList = userList.stream().map(debtBalanceMap::get).collect(Collectors.toList());
-        List<List<Number>> optimizedTrans = new ArrayList<>();
-        optimizeDebtUsingBackTracking(balanceList, 0, userList, optimizedTrans, new ArrayList<>());
-        saveOptimizedTrans(debtBalanceList.stream().map(DebtBalance::getDebtId).collect(Collectors.toSet()), optimizedTrans);
-    }
-
-    private void saveOptimizedTrans(Set<Long> debtIds, List<List<Number>> optimizedTrans) {
-        List<DebtBalance> debtBalanceList = optimizedTrans.stream()
-                .map(e -> DebtBalance.buildDebtBalanceObject(e.get(1).longValue(), e.get(0).longValue(), new BigDecimal(String.valueOf(e.get(2))).negate()))
-                .collect(Collectors.toList());
-        debtBalanceDao.deleteAllById(debtIds);
-        debtBalanceDao.saveAllAndFlush(debtBalanceList);
+        restructure(debtBalanceDao.findPendingForUpdateNowait());
     }
 
-    private Map<Long, BigDecimal> generateDebtBalanceMap(List<DebtBalance> debtBalanceList) {
-        if (CollectionUtils.isEmpty(debtBalanceList)) return Collections.emptyMap();
-        Map<Long, BigDecimal> debtBalanceMap = new HashMap<>();
-        debtBalanceList.forEach(e -> {
-            debtBalanceMap.put(e.getFromAccountId(), debtBalanceMap.getOrDefault(e.getFromAccountId(), BigDecimal.ZERO).subtract(e.getOutStandingBalance()));
-            debtBalanceMap.put(e.getToAccountId(), debtBalanceMap.getOrDefault(e.getToAccountId(), BigDecimal.ZERO).add(e.getOutStandingBalance()));
-        });
-        return debtBalanceMap;
+    @Override
+    @Transactional
+    public void restructureDebt(Collection<Long> accountIds) {
+        if (restructuringMode == DebtRestructuringMode.FULL) {
+            restructureDebt();
+        } else if (!CollectionUtils.isEmpty(accountIds)) {
+            restructure(findConnectedDebts(accountIds));
+        }
     }
 
-    private int optimizeDebtUsingBackTracking(List<BigDecimal> balanceList, int curPos, List<Long> userList, List<List<Number>> result, List<List<Number>> tempResult) {
-        while (curPos < balanceList.size() && balanceList.get(curPos).compareTo(BigDecimal.ZERO) == 0) {
-            curPos++;
-        }
-        if (curPos == balanceList.size()) {
-            result.clear();
-            result.addAll(tempResult);
-            return 0;
+    /**
+     * Walks the debt graph outwards from the given accounts, one query per hop, and returns every pending debt of the
+     * connected groups they belong to. The rest of the ledger is never loaded. The debts are write-locked as they are
+     * read, so a debt netted or paid off by a money operation meanwhile is read as it was committed, and cannot
+     * change again until the restructured debts are written. The locks are taken without waiting: a debt locked by a
+     * money operation fails the pass, which is rolled back and run again later, so a pass never holds debts while it
+     * waits for a money operation and cannot deadlock with one.
+     */
+    private List<DebtBalance> findConnectedDebts(Collection<Long> accountIds) {
+        Map<Long, DebtBalance> connectedDebts = new LinkedHashMap<>();
+        Set<Long> visitedAccountIds = new HashSet<>(accountIds);
+        Set<Long> frontier = new HashSet<>(accountIds);
+        while (!frontier.isEmpty()) {
+            Set<Long> nextFrontier = new HashSet<>();
+            for (DebtBalance debtBalance : debtBalanceDao.findPendingByAccountIdInForUpdateNowait(frontier)) {
+                if (connectedDebts.putIfAbsent(debtBalance.getDebtId(), debtBalance) != null) continue;
+                if (visitedAccountIds.add(debtBalance.getFromAccountId())) nextFrontier.add(debtBalance.getFromAccountId());
+                if (visitedAccountIds.add(debtBalance.getToAccountId())) nextFrontier.add(debtBalance.getToAccountId());
+            }
+            frontier = nextFrontier;
         }
-        int minTransactions = Integer.MAX_VALUE;
-        for (int idx = curPos + 1; idx < balanceList.size(); idx++) {
-            if (balanceList.get(idx).multiply(balanceList.get(curPos)).compareTo(BigDecimal.ZERO) < 0) {
-                tempResult.add(List.of(userList.get(curPos), userList.get(idx), balanceList.get(curPos).abs().min(balanceList.get(idx).abs()).negate()));
+        return new ArrayList<>(connectedDebts.values());
+    }
 
-                balanceList.set(idx, balanceList.get(idx).add(balanceList.get(curPos)));
-                int transactions = 1 + optimizeDebtUsingBackTracking(balanceList, curPos + 1, userList, result, tempResult);
-                minTransactions = Math.min(minTransactions, transactions);
-                balanceList.set(idx, balanceList.get(idx).subtract(balanceList.get(curPos)));
+    private void restructure(List<DebtBalance> debtBalanceList) {
+        if (CollectionUtils.isEmpty(debtBalanceList)) return;
+        List<SettlementEdge> optimizedTrans = debtSettlementEngine.settle(debtBalanceList);
+        log.info("restructureDebt, mode: {}, debts: {}, optimizedTrans: {}", restructuringMode, debtBalanceList.size(), optimizedTrans.size());
+        if (isAlreadySettled(debtBalanceList, optimizedTrans)) return;
+        saveOptimizedTrans(debtBalanceList, optimizedTrans);
+    }
 
-                tempResult.remove(tempResult.size() - 1);
+    /**
+     * Clears the restructured debts, which the archiver later moves to the debt history, and writes the optimized
+     * ones in their place. A money operation may have added a first debt between two accounts of the group since it
+     * was read; the optimized debt of that pair is netted into it, as in {@link NettingDebtLedger}, so the pair keeps a
+     * single pending debt.
+     */
+    private void saveOptimizedTrans(List<DebtBalance> restructuredDebts, List<SettlementEdge> optimizedTrans) {
+        restructuredDebts.forEach(DebtBalance::clear);
+        debtBalanceDao.saveAllAndFlush(restructuredDebts);
+        Set<Long> accountIds = new HashSet<>();
+        optimizedTrans.forEach(e -> {
+            accountIds.add(e.fromAccountId());
+            accountIds.add(e.toAccountId());
+        });
+        Map<Set<Long>, DebtBalance> newPairDebts = new HashMap<>();
+        if (!accountIds.isEmpty()) {
+            for (DebtBalance debtBalance : debtBalanceDao.findPendingByAccountIdInForUpdateNowait(accountIds)) {
+                newPairDebts.putIfAbsent(Set.of(debtBalance.getFromAccountId(), debtBalance.getToAccountId()), debtBalance);
             }
         }
-        return minTransactions;
+        List<DebtBalance> debtBalanceList = new ArrayList<>();
+        for (SettlementEdge e : optimizedTrans) {
+            DebtBalance newPairDebt = newPairDebts.remove(Set.of(e.fromAccountId(), e.toAccountId()));
+            if (Objects.isNull(newPairDebt)) {
+                debtBalanceList.add(DebtBalance.buildDebtBalanceObject(e.fromAccountId(), e.toAccountId(), e.amount()));
+            } else {
+                if (newPairDebt.netDebt(e.fromAccountId(), e.amount())) newPairDebt.clear();
+                debtBalanceList.add(newPairDebt);
+            }
+        }
+        debtBalanceDao.saveAllAndFlush(debtBalanceList);
+    }
+
+    /**
+     * Skips the rewrite when the stored debts already are the optimized ones, which is the common case after an
+     * operation that did not touch any debt.
+     */
+    private boolean isAlreadySettled(List<DebtBalance> debtBalanceList, List<SettlementEdge> optimizedTrans) {
+        if (debtBalanceList.size() != optimizedTrans.size()) return false;
+        Set<SettlementEdge> storedTrans = debtBalanceList.stream()
+                .map(e -> new SettlementEdge(e.getFromAccountId(), e.getToAccountId(), e.getOutStandingBalance().abs().stripTrailingZeros()))
+                .collect(Collectors.toSet());
+        return optimizedTrans.stream()
+                .map(e -> new SettlementEdge(e.fromAccountId(), e.toAccountId(), e.amount().stripTrailingZeros()))
+                .allMatch(storedTrans::contains);
     }
 }
@@ -0,0 +1,91 @@
+package com.xyzbank.atm.atm_management_service.service.impl;
+
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.model.SettlementEdge;
+import com.xyzbank.atm.atm_management_service.service.DebtSettlementEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@Service("debtSettlementEngine")
+@Slf4j
+public class DebtSettlementEngineImpl implements DebtSettlementEngine {
+
+    private final int exactMaxAccounts;
+
+    private final long exactTimeBudgetNanos;
+
+    private final ExactDebtSettlementSolver exactSolver;
+
+    private final GreedyDebtSettlementSolver greedySolver = new GreedyDebtSettlementSolver();
+
+    public DebtSettlementEngineImpl(@Value("${atm.debt.settlement.exact-max-accounts:10}") int exactMaxAccounts,
+                                    @Value("${atm.debt.settlement.exact-time-budget-ms:50}") long exactTimeBudgetMs) {
+        this.exactMaxAccounts = exactMaxAccounts;
+        this.exactTimeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(exactTimeBudgetMs);
+        this.exactSolver = new ExactDebtSettlementSolver(exactTimeBudgetNanos);
+    }
+
+    @Override
+    public List<SettlementEdge> settle(Collection<DebtBalance> debtBalances) {
+        long deadlineNanos = System.nanoTime() + exactTimeBudgetNanos;
+        List<SettlementEdge> result = new ArrayList<>();
+        int exactGroups = 0;
+        int greedyGroups = 0;
+        for (Map<Long, BigDecimal> group : splitIntoZeroSumGroups(debtBalances)) {
+            if (group.size() <= exactMaxAccounts && System.nanoTime() - deadlineNanos < 0) {
+                result.addAll(exactSolver.solve(group, deadlineNanos));
+                exactGroups++;
+            } else {
+                result.addAll(greedySolver.solve(group));
+                greedyGroups++;
+            }
+        }
+        log.debug("settle, debts: {}, exactGroups: {}, greedyGroups: {}, settlements: {}", debtBalances.size(), exactGroups, greedyGroups, result.size());
+        return result;
+    }
+
+    /**
+     * Groups the net balances by connected component of the debt graph. Every component nets to zero, so each one can
+     * be settled on its own. Accounts whose net balance is already zero are dropped.
+     */
+    private Collection<Map<Long, BigDecimal>> splitIntoZeroSumGroups(Collection<DebtBalance> debtBalances) {
+        Map<Long, Long> parents = new HashMap<>();
+        Map<Long, BigDecimal> netBalances = new LinkedHashMap<>();
+        for (DebtBalance debtBalance : debtBalances) {
+            BigDecimal amount = debtBalance.getOutStandingBalance().abs();
+            netBalances.merge(debtBalance.getFromAccountId(), amount, BigDecimal::add);
+            netBalances.merge(debtBalance.getToAccountId(), amount.negate(), BigDecimal::add);
+            union(parents, debtBalance.getFromAccountId(), debtBalance.getToAccountId());
+        }
+        Map<Long, Map<Long, BigDecimal>> groups = new LinkedHashMap<>();
+        netBalances.forEach((accountId, balance) -> {
+            if (balance.signum() != 0) {
+                groups.computeIfAbsent(find(parents, accountId), k -> new LinkedHashMap<>()).put(accountId, balance);
+            }
+        });
+        return groups.values();
+    }
+
+    private static void union(Map<Long, Long> parents, Long first, Long second) {
+        Long firstRoot = find(parents, first);
+        Long secondRoot = find(parents, second);
+        if (!firstRoot.equals(secondRoot)) parents.put(firstRoot, secondRoot);
+    }
+
+    private static Long find(Map<Long, Long> parents, Long accountId) {
+        Long root = accountId;
+        while (parents.containsKey(root)) {
+            root = parents.get(root);
+        }
+        Long current = accountId;
+        while (!current.equals(root)) {
+            current = parents.put(current, root);
+        }
+        return root;
+    }
+}
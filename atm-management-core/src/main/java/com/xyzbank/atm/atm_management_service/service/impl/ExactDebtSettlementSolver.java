@@ -0,0 +1,111 @@
+package com.xyzbank.atm.atm_management_service.service.impl;
+
+import com.xyzbank.atm.atm_management_service.model.SettlementEdge;
+import com.xyzbank.atm.atm_management_service.service.DebtSettlementSolver;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Finds the minimum number of transfers by branch and bound. The greedy result is used as the initial bound, so the
+ * search only explores branches that can beat it, and it stops at the deadline returning the best result found so
+ * far. The search is exponential in the number of accounts and is only meant for small groups.
+ */
+public class ExactDebtSettlementSolver implements DebtSettlementSolver {
+
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private final GreedyDebtSettlementSolver greedySolver = new GreedyDebtSettlementSolver();
+
+    private final long timeBudgetNanos;
+
+    public ExactDebtSettlementSolver(long timeBudgetNanos) {
+        this.timeBudgetNanos = timeBudgetNanos;
+    }
+
+    @Override
+    public List<SettlementEdge> solve(Map<Long, BigDecimal> netBalances) {
+        return solve(netBalances, System.nanoTime() + timeBudgetNanos);
+    }
+
+    public List<SettlementEdge> solve(Map<Long, BigDecimal> netBalances, long deadlineNanos) {
+        List<SettlementEdge> greedyResult = greedySolver.solve(netBalances);
+        List<Long> accountIds = new ArrayList<>();
+        List<BigDecimal> balances = new ArrayList<>();
+        netBalances.forEach((accountId, balance) -> {
+            if (balance.signum() != 0) {
+                accountIds.add(accountId);
+                balances.add(balance);
+            }
+        });
+        BranchAndBound search = new BranchAndBound(accountIds.toArray(new Long[0]), balances.toArray(new BigDecimal[0]),
+                greedyResult, deadlineNanos);
+        search.search(0);
+        return search.best;
+    }
+
+    private static final class BranchAndBound {
+
+        private final Long[] accountIds;
+
+        private final BigDecimal[] balances;
+
+        private final long deadlineNanos;
+
+        private final Deque<SettlementEdge> path = new ArrayDeque<>();
+
+        private List<SettlementEdge> best;
+
+        private long visitedNodes;
+
+        private boolean timedOut;
+
+        private BranchAndBound(Long[] accountIds, BigDecimal[] balances, List<SettlementEdge> initialBest, long deadlineNanos) {
+            this.accountIds = accountIds;
+            this.balances = balances;
+            this.best = initialBest;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        private void search(int start) {
+            while (start < balances.length && balances[start].signum() == 0) {
+                start++;
+            }
+            if (start == balances.length) {
+                if (path.size() < best.size()) best = new ArrayList<>(path);
+                return;
+            }
+            int unsettled = 0;
+            for (int idx = start; idx < balances.length; idx++) {
+                if (balances[idx].signum() != 0) unsettled++;
+            }
+            // every transfer settles at most two accounts, so this branch cannot beat the current best
+            if (path.size() + (unsettled + 1) / 2 >= best.size() || isTimedOut()) return;
+
+            BigDecimal moved = balances[start];
+            Set<BigDecimal> triedBalances = new TreeSet<>();
+            for (int idx = start + 1; idx < balances.length; idx++) {
+                if (balances[idx].signum() * moved.signum() >= 0 || !triedBalances.add(balances[idx])) continue;
+                boolean exactMatch = balances[idx].add(moved).signum() == 0;
+
+                balances[idx] = balances[idx].add(moved);
+                path.addLast(moved.signum() > 0
+                        ? new SettlementEdge(accountIds[start], accountIds[idx], moved)
+                        : new SettlementEdge(accountIds[idx], accountIds[start], moved.negate()));
+                search(start + 1);
+                path.removeLast();
+                balances[idx] = balances[idx].subtract(moved);
+
+                // settling against an exactly opposite balance is always part of some optimal solution
+                if (exactMatch || timedOut) break;
+            }
+        }
+
+        private boolean isTimedOut() {
+            if (!timedOut && ++visitedNodes % DEADLINE_CHECK_INTERVAL == 0) {
+                timedOut = System.nanoTime() - deadlineNanos > 0;
+            }
+            return timedOut;
+        }
+    }
+}
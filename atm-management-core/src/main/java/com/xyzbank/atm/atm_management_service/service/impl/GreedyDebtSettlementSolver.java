@@ -0,0 +1,59 @@
+package com.xyzbank.atm.atm_management_service.service.impl;
+
+import com.xyzbank.atm.atm_management_service.model.SettlementEdge;
+import com.xyzbank.atm.atm_management_service.service.DebtSettlementSolver;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Settles debts by first pairing debtors and creditors with exactly opposite balances and then repeatedly matching
+ * the largest remaining debtor with the largest remaining creditor. Runs in O(n log n) and never produces more than
+ * n - 1 transfers for n accounts.
+ */
+public class GreedyDebtSettlementSolver implements DebtSettlementSolver {
+
+    private static final Comparator<Position> LARGEST_FIRST = Comparator.comparing(Position::amount).reversed()
+            .thenComparing(Position::accountId);
+
+    @Override
+    public List<SettlementEdge> solve(Map<Long, BigDecimal> netBalances) {
+        List<SettlementEdge> result = new ArrayList<>();
+        PriorityQueue<Position> debtors = new PriorityQueue<>(LARGEST_FIRST);
+        PriorityQueue<Position> creditors = new PriorityQueue<>(LARGEST_FIRST);
+        Map<BigDecimal, Deque<Long>> creditorsByAmount = new HashMap<>();
+
+        netBalances.forEach((accountId, balance) -> {
+            if (balance.signum() < 0) {
+                creditorsByAmount.computeIfAbsent(balance.negate().stripTrailingZeros(), k -> new ArrayDeque<>()).add(accountId);
+            }
+        });
+        netBalances.forEach((accountId, balance) -> {
+            if (balance.signum() > 0) {
+                Deque<Long> sameAmountCreditors = creditorsByAmount.get(balance.stripTrailingZeros());
+                if (sameAmountCreditors != null && !sameAmountCreditors.isEmpty()) {
+                    result.add(new SettlementEdge(accountId, sameAmountCreditors.poll(), balance));
+                } else {
+                    debtors.add(new Position(accountId, balance));
+                }
+            }
+        });
+        creditorsByAmount.forEach((amount, accountIds) -> accountIds.forEach(accountId -> creditors.add(new Position(accountId, amount))));
+
+        while (!debtors.isEmpty() && !creditors.isEmpty()) {
+            Position debtor = debtors.poll();
+            Position creditor = creditors.poll();
+            BigDecimal settledAmount = debtor.amount().min(creditor.amount());
+            result.add(new SettlementEdge(debtor.accountId(), creditor.accountId(), settledAmount));
+
+            BigDecimal debtorRemainder = debtor.amount().subtract(settledAmount);
+            BigDecimal creditorRemainder = creditor.amount().subtract(settledAmount);
+            if (debtorRemainder.signum() > 0) debtors.add(new Position(debtor.accountId(), debtorRemainder));
+            if (creditorRemainder.signum() > 0) creditors.add(new Position(creditor.accountId(), creditorRemainder));
+        }
+        return result;
+    }
+
+    private record Position(Long accountId, BigDecimal amount) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.xyzbank.atm.atm_management_service.service.impl;
+
+import com.xyzbank.atm.atm_management_service.model.AccountIdentity;
+import com.xyzbank.atm.atm_management_service.model.IdentityCacheStats;
+import com.xyzbank.atm.atm_management_service.service.AccountIdentityCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the most recently used name to account id mappings, evicting the least recently used one once the cache is
+ * full. A max size of 0 disables the cache.
+ */
+@Service("accountIdentityCache")
+public class LruAccountIdentityCache implements AccountIdentityCache {
+
+    private final int maxSize;
+
+    private final Map<String, AccountIdentity> entries;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public LruAccountIdentityCache(@Value("${atm.account.identity-cache.max-size:10000}") int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AccountIdentity> eldest) {
+                if (size() <= LruAccountIdentityCache.this.maxSize) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public Optional<AccountIdentity> get(String name) {
+        AccountIdentity accountIdentity;
+        synchronized (entries) {
+            accountIdentity = entries.get(name);
+        }
+        (accountIdentity == null ? misses : hits).increment();
+        return Optional.ofNullable(accountIdentity);
+    }
+
+    @Override
+    public void put(String name, AccountIdentity accountIdentity) {
+        if (maxSize == 0) return;
+        synchronized (entries) {
+            entries.put(name, accountIdentity);
+        }
+    }
+
+    @Override
+    public void invalidate(String name) {
+        synchronized (entries) {
+            entries.remove(name);
+        }
+    }
+
+    @Override
+    public IdentityCacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new IdentityCacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+}
@@ -0,0 +1,44 @@
+package com.xyzbank.atm.atm_management_service.service.impl;
+
+import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.service.DebtLedger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Service("debtLedger")
+@Slf4j
+public class NettingDebtLedger implements DebtLedger {
+
+    @Autowired
+    private DebtBalanceDao debtBalanceDao;
+
+    @Override
+    @Transactional
+    public void recordDebt(Long debtorAccountId, Long creditorAccountId, BigDecimal debtAmount) {
+        if (debtAmount.signum() == 0) return;
+        // the row of the pair stays locked until commit, so concurrent debts between the same accounts are netted one after the other
+        List<DebtBalance> pairDebts = debtBalanceDao.findPendingByAccountPairForUpdate(debtorAccountId, creditorAccountId);
+        if (pairDebts.isEmpty()) {
+            debtBalanceDao.save(DebtBalance.buildDebtBalanceObject(debtorAccountId, creditorAccountId, debtAmount));
+            return;
+        }
+        DebtBalance pairDebt = pairDebts.get(0);
+        // rows written before debts were netted, or by two first debts recorded at the same time, are folded in
+        List<DebtBalance> duplicates = pairDebts.subList(1, pairDebts.size());
+        duplicates.forEach(duplicate -> {
+            pairDebt.netDebt(duplicate.getFromAccountId(), duplicate.getOutStandingBalance().negate());
+            duplicate.clear();
+        });
+        if (!duplicates.isEmpty()) debtBalanceDao.saveAll(duplicates);
+
+        if (pairDebt.netDebt(debtorAccountId, debtAmount)) pairDebt.clear();
+        debtBalanceDao.save(pairDebt);
+        log.debug("recordDebt, debtorAccountId: {}, creditorAccountId: {}, debtAmount: {}, folded: {}", debtorAccountId, creditorAccountId, debtAmount, duplicates.size());
+    }
+}
@@ -0,0 +1,86 @@
+package com.xyzbank.atm.atm_management_service.service.impl;
+
+import com.xyzbank.atm.atm_management_service.model.LockWaitStats;
+import com.xyzbank.atm.atm_management_service.service.AccountConcurrencyMode;
+import com.xyzbank.atm.atm_management_service.service.AccountLockManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Maps every account to one of a fixed number of locks. Accounts sharing a stripe are serialised together, which only
+ * costs a short local wait, and the memory used does not grow with the number of accounts.
+ */
+@Service("accountLockManager")
+public class StripedAccountLockManager implements AccountLockManager {
+
+    private static final Lease NO_LOCK = () -> {
+    };
+
+    private final boolean enabled;
+
+    private final ReentrantLock[] stripes;
+
+    private final LongAdder acquisitions = new LongAdder();
+
+    private final LongAdder contendedAcquisitions = new LongAdder();
+
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    public StripedAccountLockManager(@Value("${atm.account.concurrency-mode:OPTIMISTIC}") AccountConcurrencyMode concurrencyMode,
+                                     @Value("${atm.account.lock.stripes:1024}") int stripeCount) {
+        this.enabled = concurrencyMode == AccountConcurrencyMode.STRIPED_LOCK;
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+        for (int idx = 0; idx < stripes.length; idx++) {
+            stripes[idx] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Lease lock(Long... accountIds) {
+        if (!enabled) return NO_LOCK;
+        int[] stripeIndexes = Arrays.stream(accountIds).mapToInt(this::stripeIndex).sorted().distinct().toArray();
+        for (int idx = 0; idx < stripeIndexes.length; idx++) {
+            try {
+                acquire(stripes[stripeIndexes[idx]]);
+            } catch (RuntimeException ex) {
+                unlock(stripeIndexes, idx);
+                throw ex;
+            }
+        }
+        return () -> unlock(stripeIndexes, stripeIndexes.length);
+    }
+
+    @Override
+    public LockWaitStats getLockWaitStats() {
+        return new LockWaitStats(acquisitions.sum(), contendedAcquisitions.sum(), totalWaitNanos.sum(), maxWaitNanos.get());
+    }
+
+    private void acquire(ReentrantLock lock) {
+        acquisitions.increment();
+        if (lock.tryLock()) return;
+        long startNanos = System.nanoTime();
+        lock.lock();
+        long waitNanos = System.nanoTime() - startNanos;
+        contendedAcquisitions.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulate(waitNanos);
+    }
+
+    private void unlock(int[] stripeIndexes, int lockedCount) {
+        for (int idx = lockedCount - 1; idx >= 0; idx--) {
+            stripes[stripeIndexes[idx]].unlock();
+        }
+    }
+
+    private int stripeIndex(Long accountId) {
+        int hash = accountId.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
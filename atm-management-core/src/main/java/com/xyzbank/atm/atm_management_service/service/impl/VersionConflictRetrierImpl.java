@@ -0,0 +1,79 @@
+package com.xyzbank.atm.atm_management_service.service.impl;
+
+import com.xyzbank.atm.atm_management_service.exception.VersionConflictException;
+import com.xyzbank.atm.atm_management_service.service.ContentionMetrics;
+import com.xyzbank.atm.atm_management_service.service.VersionConflictRetrier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@Service("versionConflictRetrier")
+@Slf4j
+public class VersionConflictRetrierImpl implements VersionConflictRetrier {
+
+    private final ContentionMetrics contentionMetrics;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffNanos;
+
+    private final long maxBackoffNanos;
+
+    private final long maxTotalNanos;
+
+    public VersionConflictRetrierImpl(ContentionMetrics contentionMetrics,
+                                      @Value("${atm.account.conflict-retry.max-attempts:5}") int maxAttempts,
+                                      @Value("${atm.account.conflict-retry.initial-backoff-ms:2}") long initialBackoffMs,
+                                      @Value("${atm.account.conflict-retry.max-backoff-ms:50}") long maxBackoffMs,
+                                      @Value("${atm.account.conflict-retry.max-total-ms:500}") long maxTotalMs) {
+        this.contentionMetrics = contentionMetrics;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(initialBackoffMs);
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(maxBackoffMs);
+        this.maxTotalNanos = TimeUnit.MILLISECONDS.toNanos(maxTotalMs);
+    }
+
+    @Override
+    public <T, E extends Exception> T execute(VersionedOperation<T, E> operation) throws E {
+        long startNanos = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.run(attempt);
+            } catch (VersionConflictException ex) {
+                Long accountId = ex.getAccountId();
+                if (accountId != null) contentionMetrics.recordConflict(accountId);
+                long backoffNanos = backoffNanos(attempt);
+                if (attempt >= maxAttempts || System.nanoTime() - startNanos + backoffNanos > maxTotalNanos) {
+                    log.warn("Version conflict retries exhausted, accountId: {}, attempts: {}", accountId, attempt);
+                    if (accountId != null) contentionMetrics.recordFailure(accountId);
+                    throw ex;
+                }
+                log.debug("Version conflict, accountId: {}, attempt: {}, backoffNanos: {}", accountId, attempt, backoffNanos);
+                if (accountId != null) contentionMetrics.recordRetry(accountId);
+                sleep(backoffNanos, ex);
+            }
+        }
+    }
+
+    /**
+     * Full jitter: a random delay up to an exponentially growing, capped ceiling, so that operations which collided
+     * once do not collide again on the next attempt.
+     */
+    private long backoffNanos(int attempt) {
+        long ceilingNanos = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 30));
+        return ceilingNanos <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceilingNanos + 1);
+    }
+
+    private static void sleep(long nanos, VersionConflictException conflict) {
+        if (nanos <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
@@ -4,23 +4,40 @@ package com.xyzbank.atm.atm_management_service;
 import com.xyzbank.atm.atm_management_service.account.Account;
 import com.xyzbank.atm.atm_management_service.account.AccountStatus;
 import com.xyzbank.atm.atm_management_service.dao.AccountDao;
+import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
+import com.xyzbank.atm.atm_management_service.dao.TransactionDao;
 import com.xyzbank.atm.atm_management_service.dao.UserDao;
 import com.xyzbank.atm.atm_management_service.exception.CancelAccountException;
 import com.xyzbank.atm.atm_management_service.exception.CreateAccountException;
 import com.xyzbank.atm.atm_management_service.exception.InvalidAccountException;
+import com.xyzbank.atm.atm_management_service.model.AccountBalanceView;
 import com.xyzbank.atm.atm_management_service.model.AccountRequestModel;
+import com.xyzbank.atm.atm_management_service.model.AccountSummary;
+import com.xyzbank.atm.atm_management_service.model.AccountWithUser;
 import com.xyzbank.atm.atm_management_service.model.CreateAccountRequestModel;
+import com.xyzbank.atm.atm_management_service.model.DebtDetail;
+import com.xyzbank.atm.atm_management_service.model.TransactionPage;
+import com.xyzbank.atm.atm_management_service.model.TransactionPageRequestModel;
+import com.xyzbank.atm.atm_management_service.service.AccountIdentityCache;
+import com.xyzbank.atm.atm_management_service.service.TransactionJournal;
 import com.xyzbank.atm.atm_management_service.service.impl.AccountCrudServiceImpl;
+import com.xyzbank.atm.atm_management_service.service.impl.LruAccountIdentityCache;
+import com.xyzbank.atm.atm_management_service.transaction.Transaction;
+import com.xyzbank.atm.atm_management_service.transaction.TransactionType;
 import com.xyzbank.atm.atm_management_service.user.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +53,18 @@ class AccountCrudServiceImplTest {
     @Mock
     private AccountDao accountDao;
 
+    @Mock
+    private TransactionDao transactionDao;
+
+    @Mock
+    private DebtBalanceDao debtBalanceDao;
+
+    @Mock
+    private TransactionJournal transactionJournal;
+
+    @Spy
+    private AccountIdentityCache accountIdentityCache = new LruAccountIdentityCache(16);
+
     @InjectMocks
     private AccountCrudServiceImpl accountCrudService;
 
@@ -63,8 +92,7 @@ class AccountCrudServiceImplTest {
 
     @Test
     void testGetOrCreateAccount_validInput_accountAlreadyExists() throws Exception {
-        when(userDao.findByName(eq(tempName))).thenReturn(user);
-        when(accountDao.findByUserId(eq(user.getId()))).thenReturn(account);
+        when(accountDao.findWithUserByUserName(eq(tempName))).thenReturn(Optional.of(new AccountWithUser(account, user)));
         CreateAccountRequestModel requestModel = new CreateAccountRequestModel("tempName", "username", "password");
         Account result = accountCrudService.getOrCreateAccount(requestModel);
 
@@ -72,7 +100,7 @@ class AccountCrudServiceImplTest {
         assertEquals(user.getId(), result.getUserId());
         assertNotNull(result.getAccountId());
         assertEquals(accountId, result.getAccountId());
-        verify(accountDao, times(1)).findByUserId(eq(user.getId()));
+        verify(accountDao, times(1)).findWithUserByUserName(eq(tempName));
         verify(accountDao, times(0)).saveAndFlush(any(Account.class));
     }
 
@@ -97,8 +125,6 @@ class AccountCrudServiceImplTest {
     @Test
     void testGetOrCreateAccount_validInput_accountNotExists() throws Exception {
         when(userDao.findByName(eq(tempName))).thenReturn(user);
-        when(userDao.saveAndFlush(any(User.class))).thenReturn(user);
-        when(accountDao.findByUserId(eq(user.getId()))).thenReturn(null);
         when(accountDao.saveAndFlush(any(Account.class))).thenReturn(account);
 
         CreateAccountRequestModel requestModel = new CreateAccountRequestModel("tempName", "username", "password");
@@ -108,9 +134,9 @@ class AccountCrudServiceImplTest {
         assertEquals(user.getId(), result.getUserId());
         assertNotNull(result.getAccountId());
         assertEquals(accountId, result.getAccountId());
-        verify(accountDao, times(1)).findByUserId(eq(user.getId()));
-        verify(userDao, times(1)).findByName(any(String.class));
-        verify(userDao, times(1)).saveAndFlush(any(User.class));
+        verify(accountDao, times(1)).findWithUserByUserName(eq(tempName));
+        verify(userDao, times(1)).findByName(eq(tempName));
+        verify(userDao, never()).saveAndFlush(any(User.class));
         verify(accountDao, times(1)).saveAndFlush(any(Account.class));
     }
 
@@ -119,7 +145,7 @@ class AccountCrudServiceImplTest {
         CreateAccountRequestModel requestModel = new CreateAccountRequestModel("", "username", "password");
         assertThrows(CreateAccountException.class, () -> accountCrudService.getOrCreateAccount(requestModel));
 
-        verify(accountDao, times(0)).findByUserId(eq(user.getId()));
+        verify(accountDao, never()).findWithUserByUserName(any(String.class));
         verify(accountDao, times(0)).saveAndFlush(any(Account.class));
     }
 
@@ -142,7 +168,7 @@ class AccountCrudServiceImplTest {
         CreateAccountRequestModel requestModel = new CreateAccountRequestModel("tempName", "username", "password");
 
         assertThrows(CreateAccountException.class, () -> accountCrudService.getOrCreateAccount(requestModel));
-        verify(accountDao, times(0)).findByUserId(eq(user.getId()));
+        verify(accountDao, times(1)).findWithUserByUserName(eq(tempName));
         verify(userDao, times(1)).findByName(any(String.class));
         verify(userDao, times(1)).saveAndFlush(any(User.class));
         verify(accountDao, times(0)).saveAndFlush(any(Account.class));
@@ -151,30 +177,76 @@ class AccountCrudServiceImplTest {
     @Test
     void testGetOrCreateAccount_saveAccountFailed() {
         when(userDao.findByName(eq(tempName))).thenReturn(user);
-        when(userDao.saveAndFlush(any(User.class))).thenReturn(user);
-        when(accountDao.findByUserId(eq(user.getId()))).thenReturn(null);
         when(accountDao.saveAndFlush(any(Account.class))).thenThrow(new RuntimeException());
 
         CreateAccountRequestModel requestModel = new CreateAccountRequestModel("tempName", "username", "password");
 
         assertThrows(CreateAccountException.class, () -> accountCrudService.getOrCreateAccount(requestModel));
-        verify(accountDao, times(1)).findByUserId(eq(user.getId()));
-        verify(userDao, times(1)).findByName(any(String.class));
-        verify(userDao, times(1)).saveAndFlush(any(User.class));
+        verify(accountDao, times(1)).findWithUserByUserName(eq(tempName));
+        verify(userDao, times(1)).findByName(eq(tempName));
+        verify(userDao, never()).saveAndFlush(any(User.class));
         verify(accountDao, times(1)).saveAndFlush(any(Account.class));
     }
 
+    @Test
+    void testGetTransaction_journalIsFlushedBeforeRead() throws Exception {
+        List<Transaction> transactions = List.of(Transaction.buildTransactionObject(accountId, accountId, BigDecimal.TEN, TransactionType.CREDIT, "deposit"));
+        when(accountDao.findWithUserByUserName(eq(tempName))).thenReturn(Optional.of(new AccountWithUser(account, user)));
+        when(transactionDao.findByAccountId(eq(accountId))).thenReturn(transactions);
+
+        assertEquals(transactions, accountCrudService.getTransaction(new AccountRequestModel(tempName)));
+        InOrder inOrder = inOrder(transactionJournal, transactionDao);
+        inOrder.verify(transactionJournal).flush();
+        inOrder.verify(transactionDao).findByAccountId(eq(accountId));
+    }
+
+    @Test
+    void testGetTransaction_accountNotExists() {
+        when(accountDao.findWithUserByUserName(eq(tempName))).thenReturn(Optional.empty());
+
+        assertThrows(InvalidAccountException.class, () -> accountCrudService.getTransaction(new AccountRequestModel(tempName)));
+        verifyNoInteractions(transactionDao);
+    }
+
+    @Test
+    void testGetTransactionPage_fullPageReturnsCursor() throws Exception {
+        List<Transaction> transactions = List.of(transaction(5L), transaction(6L), transaction(7L));
+        when(accountDao.findWithUserByUserName(eq(tempName))).thenReturn(Optional.of(new AccountWithUser(account, user)));
+        when(transactionDao.findPageByAccountId(eq(accountId), eq(4L), isNull(), isNull(), eq(Limit.of(3)))).thenReturn(transactions);
+
+        TransactionPage page = accountCrudService.getTransactionPage(new TransactionPageRequestModel(tempName, 4L, 2, null, null));
+
+        assertEquals(transactions.subList(0, 2), page.transactions());
+        assertEquals(6L, page.nextTransactionId());
+    }
+
+    @Test
+    void testGetTransactionPage_lastPageHasNoCursor() throws Exception {
+        List<Transaction> transactions = List.of(transaction(5L));
+        when(accountDao.findWithUserByUserName(eq(tempName))).thenReturn(Optional.of(new AccountWithUser(account, user)));
+        when(transactionDao.findPageByAccountId(eq(accountId), eq(0L), isNull(), isNull(), eq(Limit.of(3)))).thenReturn(transactions);
+
+        TransactionPage page = accountCrudService.getTransactionPage(new TransactionPageRequestModel(tempName, null, 2, null, null));
+
+        assertEquals(transactions, page.transactions());
+        assertNull(page.nextTransactionId());
+    }
+
+    @Test
+    void testGetTransactionPage_invalidLimit() {
+        assertThrows(InvalidAccountException.class, () -> accountCrudService.getTransactionPage(new TransactionPageRequestModel(tempName, null, 0, null, null)));
+        verifyNoInteractions(transactionDao);
+    }
+
     @Test
     void testCancelAccount_validId() throws Exception {
-        when(userDao.findByName(eq(tempName))).thenReturn(user);
-        when(accountDao.findByUserId(eq(user.getId()))).thenReturn(account);
+        when(accountDao.findWithUserByUserName(eq(tempName))).thenReturn(Optional.of(new AccountWithUser(account, user)));
         when(accountDao.updateAccountStatus(anyLong(), any(AccountStatus.class), anyInt())).thenReturn(1);
 
         AccountRequestModel requestModel = new AccountRequestModel("tempName");
 
         assertEquals(true, accountCrudService.cancelAccount(requestModel));
-        verify(accountDao, times(1)).findByUserId(eq(user.getId()));
-        verify(userDao, times(1)).findByName(any(String.class));
+        verify(accountDao, times(1)).findWithUserByUserName(eq(tempName));
         verify(accountDao).updateAccountStatus(anyLong(), any(AccountStatus.class), anyInt());
     }
 
@@ -187,8 +259,7 @@ class AccountCrudServiceImplTest {
 
     @Test
     void testCancelAccount_accountNotExists() throws Exception {
-        when(userDao.findByName(eq(tempName))).thenReturn(user);
-        when(accountDao.findByUserId(eq(user.getId()))).thenReturn(null);
+        when(accountDao.findWithUserByUserName(eq(tempName))).thenReturn(Optional.empty());
 
         AccountRequestModel requestModel = new AccountRequestModel("tempName");
 
@@ -198,15 +269,13 @@ class AccountCrudServiceImplTest {
 
     @Test
     void testCancelAccountDeletionFailure() {
-        when(userDao.findByName(eq(tempName))).thenReturn(user);
-        when(accountDao.findByUserId(eq(user.getId()))).thenReturn(account);
+        when(accountDao.findWithUserByUserName(eq(tempName))).thenReturn(Optional.of(new AccountWithUser(account, user)));
         doThrow(new RuntimeException()).when(accountDao).updateAccountStatus(anyLong(), any(AccountStatus.class), anyInt());
 
         AccountRequestModel requestModel = new AccountRequestModel("tempName");
 
         assertThrows(CancelAccountException.class, () -> accountCrudService.cancelAccount(requestModel));
-        verify(accountDao, times(1)).findByUserId(eq(user.getId()));
-        verify(userDao, times(1)).findByName(any(String.class));
+        verify(accountDao, times(1)).findWithUserByUserName(eq(tempName));
         verify(accountDao).updateAccountStatus(anyLong(), any(AccountStatus.class), anyInt());
     }
 
@@ -260,8 +329,7 @@ class AccountCrudServiceImplTest {
 
     @Test
     void testGetBalance_AccountExists() throws InvalidAccountException {
-        when(accountDao.findByUserId(user.getId())).thenReturn(account);
-        when(userDao.findByName(tempName)).thenReturn(user);
+        when(accountDao.findWithUserByUserName(eq(tempName))).thenReturn(Optional.of(new AccountWithUser(account, user)));
 
         AccountRequestModel requestModel = new AccountRequestModel(tempName);
         BigDecimal balance = accountCrudService.getBalance(requestModel);
@@ -269,4 +337,79 @@ class AccountCrudServiceImplTest {
         assertNotNull(balance);
         assertEquals(BigDecimal.ONE, balance);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetDebtDetails_AccountExists() throws InvalidAccountException {
+        List<DebtDetail> debtDetails = List.of(new DebtDetail(1L, accountId, tempName, 222L, "other", BigDecimal.TEN.negate()));
+        when(accountDao.findWithUserByUserName(eq(tempName))).thenReturn(Optional.of(new AccountWithUser(account, user)));
+        when(debtBalanceDao.findDebtDetailsByAccountId(accountId)).thenReturn(debtDetails);
+
+        assertEquals(debtDetails, accountCrudService.getDebtDetails(new AccountRequestModel(tempName)));
+        verifyNoInteractions(userDao);
+    }
+
+    @Test
+    void testGetAccountSummary_balanceAndDebts() throws InvalidAccountException {
+        DebtDetail owedTo = new DebtDetail(1L, accountId, tempName, 222L, "other", BigDecimal.TEN.negate());
+        DebtDetail owedFrom = new DebtDetail(2L, 333L, "third", accountId, tempName, BigDecimal.ONE.negate());
+        when(accountDao.findBalanceViewByUserName(tempName))
+                .thenReturn(Optional.of(new AccountBalanceView(accountId, BigDecimal.ONE, "USD", AccountStatus.AVAILABLE)));
+        when(debtBalanceDao.findDebtDetailsByAccountId(accountId)).thenReturn(List.of(owedTo, owedFrom));
+
+        AccountSummary accountSummary = accountCrudService.getAccountSummary(new AccountRequestModel(tempName));
+
+        assertEquals(BigDecimal.ONE, accountSummary.balance());
+        assertEquals(AccountStatus.AVAILABLE, accountSummary.accountStatus());
+        assertEquals(List.of(owedTo), accountSummary.owedTo());
+        assertEquals(List.of(owedFrom), accountSummary.owedFrom());
+        verifyNoInteractions(userDao);
+        verify(accountDao, never()).findWithUserByUserName(any(String.class));
+    }
+
+    @Test
+    void testGetAccountSummary_AccountDoesNotExist() {
+        when(accountDao.findBalanceViewByUserName(tempName)).thenReturn(Optional.empty());
+
+        assertThrows(InvalidAccountException.class, () -> accountCrudService.getAccountSummary(new AccountRequestModel(tempName)));
+        verifyNoInteractions(debtBalanceDao);
+    }
+
+    @Test
+    void testGetBalance_secondCallResolvesNameFromCache() throws InvalidAccountException {
+        when(accountDao.findWithUserByUserName(eq(tempName))).thenReturn(Optional.of(new AccountWithUser(account, user)));
+        Account updatedAccount = Account.builder().accountId(accountId).userId(user.getId())
+                .balance(BigDecimal.TEN).accountStatus(AccountStatus.AVAILABLE).build();
+        when(accountDao.findById(accountId)).thenReturn(Optional.of(updatedAccount));
+
+        AccountRequestModel requestModel = new AccountRequestModel(tempName);
+        accountCrudService.getBalance(requestModel);
+        BigDecimal balance = accountCrudService.getBalance(requestModel);
+
+        assertEquals(BigDecimal.TEN, balance);
+        verify(accountDao, times(1)).findWithUserByUserName(tempName);
+        verifyNoInteractions(userDao);
+        verify(accountDao, times(1)).findById(accountId);
+        assertEquals(1, accountIdentityCache.getStats().hits());
+    }
+
+    @Test
+    void testCancelAccount_invalidatesCachedIdentity() throws Exception {
+        when(accountDao.findWithUserByUserName(eq(tempName))).thenReturn(Optional.of(new AccountWithUser(account, user)));
+
+        AccountRequestModel requestModel = new AccountRequestModel(tempName);
+        accountCrudService.getBalance(requestModel);
+        assertTrue(accountIdentityCache.get(tempName).isPresent());
+        when(accountDao.findById(accountId)).thenReturn(Optional.of(account));
+
+        accountCrudService.cancelAccount(requestModel);
+
+        assertTrue(accountIdentityCache.get(tempName).isEmpty());
+        verify(accountIdentityCache).invalidate(tempName);
+    }
+
+    private static Transaction transaction(Long transactionId) {
+        Transaction transaction = Transaction.buildTransactionObject(accountId, accountId, BigDecimal.TEN, TransactionType.CREDIT, "deposit");
+        transaction.setTransactionId(transactionId);
+        return transaction;
+    }
+}
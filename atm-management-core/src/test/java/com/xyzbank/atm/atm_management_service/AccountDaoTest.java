@@ -0,0 +1,93 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.account.Account;
+import com.xyzbank.atm.atm_management_service.account.AccountStatus;
+import com.xyzbank.atm.atm_management_service.dao.AccountDao;
+import com.xyzbank.atm.atm_management_service.dao.UserDao;
+import com.xyzbank.atm.atm_management_service.model.AccountBalanceUpdate;
+import com.xyzbank.atm.atm_management_service.model.AccountBalanceView;
+import com.xyzbank.atm.atm_management_service.model.AccountWithUser;
+import com.xyzbank.atm.atm_management_service.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class AccountDaoTest {
+
+    @Autowired
+    private AccountDao accountDao;
+
+    @Autowired
+    private UserDao userDao;
+
+    private Long accountId;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = userDao.saveAndFlush(User.builder().name("alice").build()).getId();
+        Account account = Account.builder()
+                .balance(BigDecimal.valueOf(100))
+                .currency("USD")
+                .createdDate(LocalDateTime.now())
+                .updatedDate(LocalDateTime.now())
+                .userId(userId)
+                .accountStatus(AccountStatus.AVAILABLE)
+                .build();
+        accountId = accountDao.saveAndFlush(account).getAccountId();
+    }
+
+    @Test
+    void testAddToBalance_returnsNewBalance() {
+        AccountBalanceUpdate balanceUpdate = accountDao.addToBalance(accountId, BigDecimal.valueOf(50)).orElseThrow();
+
+        assertEquals(0, BigDecimal.valueOf(150).compareTo(balanceUpdate.getBalance()));
+        assertEquals(1, balanceUpdate.getVersionId());
+    }
+
+    @Test
+    void testSubtractFromBalance_balanceIsGuarded() {
+        assertTrue(accountDao.subtractFromBalance(accountId, BigDecimal.valueOf(101)).isEmpty());
+
+        AccountBalanceUpdate balanceUpdate = accountDao.subtractFromBalance(accountId, BigDecimal.valueOf(100)).orElseThrow();
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceUpdate.getBalance()));
+    }
+
+    @Test
+    void testAddToBalance_unavailableAccount() {
+        assertTrue(accountDao.addToBalance(accountId + 1, BigDecimal.TEN).isEmpty());
+    }
+
+    @Test
+    void testFindWithUserByUserName_returnsAccountAndUser() {
+        AccountWithUser accountWithUser = accountDao.findWithUserByUserName("alice").orElseThrow();
+
+        assertEquals(accountId, accountWithUser.account().getAccountId());
+        assertEquals(userId, accountWithUser.user().getId());
+        assertTrue(accountDao.findWithUserByUserName("bob").isEmpty());
+    }
+
+    @Test
+    void testFindBalanceViewByUserName_returnsBalanceAndStatus() {
+        AccountBalanceView balanceView = accountDao.findBalanceViewByUserName("alice").orElseThrow();
+
+        assertEquals(accountId, balanceView.accountId());
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(balanceView.balance()));
+        assertEquals(AccountStatus.AVAILABLE, balanceView.accountStatus());
+    }
+
+    @Test
+    void testUserName_isUnique() {
+        assertThrows(DataIntegrityViolationException.class, () -> userDao.saveAndFlush(User.builder().name("alice").build()));
+    }
+}
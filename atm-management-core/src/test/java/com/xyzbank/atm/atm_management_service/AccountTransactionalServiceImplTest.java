@@ -4,26 +4,48 @@ import com.xyzbank.atm.atm_management_service.account.Account;
 import com.xyzbank.atm.atm_management_service.account.AccountStatus;
 import com.xyzbank.atm.atm_management_service.dao.AccountDao;
 import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
-import com.xyzbank.atm.atm_management_service.dao.UserDao;
 import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
 import com.xyzbank.atm.atm_management_service.exception.DepositOperationException;
 import com.xyzbank.atm.atm_management_service.exception.InvalidAccountException;
 import com.xyzbank.atm.atm_management_service.exception.TransferOperationException;
+import com.xyzbank.atm.atm_management_service.exception.VersionConflictException;
 import com.xyzbank.atm.atm_management_service.exception.WithdrawOperationException;
-import com.xyzbank.atm.atm_management_service.service.DebtRestructuringService;
+import com.xyzbank.atm.atm_management_service.model.AccountBalanceUpdate;
+import com.xyzbank.atm.atm_management_service.model.AccountWithUser;
+import com.xyzbank.atm.atm_management_service.model.DepositResult;
+import com.xyzbank.atm.atm_management_service.model.TransferCommand;
+import com.xyzbank.atm.atm_management_service.model.TransferCommandResult;
+import com.xyzbank.atm.atm_management_service.model.TransferResult;
+import com.xyzbank.atm.atm_management_service.model.WithdrawResult;
+import com.xyzbank.atm.atm_management_service.service.AccountConcurrencyMode;
+import com.xyzbank.atm.atm_management_service.service.AccountLockManager;
+import com.xyzbank.atm.atm_management_service.service.AccountUpdateMode;
+import com.xyzbank.atm.atm_management_service.service.DebtLedger;
+import com.xyzbank.atm.atm_management_service.service.DebtRestructuringScheduler;
+import com.xyzbank.atm.atm_management_service.service.TransactionJournal;
+import com.xyzbank.atm.atm_management_service.service.VersionConflictRetrier;
 import com.xyzbank.atm.atm_management_service.service.impl.AccountTransactionalServiceImpl;
+import com.xyzbank.atm.atm_management_service.service.impl.ContentionMetricsImpl;
+import com.xyzbank.atm.atm_management_service.service.impl.StripedAccountLockManager;
+import com.xyzbank.atm.atm_management_service.service.impl.VersionConflictRetrierImpl;
 import com.xyzbank.atm.atm_management_service.user.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,13 +57,22 @@ class AccountTransactionalServiceImplTest {
     private AccountDao accountDao;
 
     @Mock
-    private UserDao userDao;
+    private DebtBalanceDao debtBalanceDao;
 
     @Mock
-    private DebtBalanceDao debtBalanceDao;
+    private DebtRestructuringScheduler debtRestructuringScheduler;
 
     @Mock
-    private DebtRestructuringService debtRestructuringService;
+    private DebtLedger debtLedger;
+
+    @Mock
+    private TransactionJournal transactionJournal;
+
+    @Spy
+    private VersionConflictRetrier versionConflictRetrier = new VersionConflictRetrierImpl(new ContentionMetricsImpl(), 1, 0, 0, 0);
+
+    @Spy
+    private AccountLockManager accountLockManager = new StripedAccountLockManager(AccountConcurrencyMode.STRIPED_LOCK, 16);
 
     @Mock
     private AccountTransactionalServiceImpl self;
@@ -62,6 +93,8 @@ class AccountTransactionalServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(accountTransactionalService, "updateMode", AccountUpdateMode.VERSIONED);
+
         fromAccount = Account.builder()
                 .accountId(fromAccountId)
                 .balance(BigDecimal.ZERO)
@@ -90,27 +123,33 @@ class AccountTransactionalServiceImplTest {
     void testDeposit_success() throws InvalidAccountException {
         BigDecimal amount = BigDecimal.valueOf(123);
         when(accountDao.findById(eq(fromAccountId))).thenReturn(Optional.of(fromAccount));
-        when(debtBalanceDao.findByFromAccountId(fromAccountId)).thenReturn(Collections.emptyList());
+        when(debtBalanceDao.findByFromAccountIdAndDebtStatus(fromAccountId, DebtStatus.PENDING)).thenReturn(Collections.emptyList());
         when(accountDao.updateBalanceWithVersion(fromAccountId, amount, 1)).thenReturn(1);
-        doNothing().when(debtRestructuringService).restructureDebt();
+        doNothing().when(debtRestructuringScheduler).markDirty(anyCollection());
 
         assertDoesNotThrow(() -> accountTransactionalService.deposit(fromAccountId, amount, "deposit"));
         verify(accountDao, times(1)).updateBalanceWithVersion(eq(fromAccountId), eq(amount), eq(1));
+        verify(transactionJournal).recordDeposit(fromAccountId, amount, "deposit");
     }
 
     @Test
     void testDeposit_withDebtBalance_transferOperationException() throws InvalidAccountException, TransferOperationException {
         BigDecimal amount = BigDecimal.valueOf(123);
         DebtBalance debtBalance = DebtBalance.buildDebtBalanceObject(fromAccountId, toAccountId, amount);
-        when(debtBalanceDao.findByFromAccountId(fromAccountId)).thenReturn(Collections.singletonList(debtBalance));
+        when(debtBalanceDao.findByFromAccountIdAndDebtStatus(fromAccountId, DebtStatus.PENDING)).thenReturn(Collections.singletonList(debtBalance));
         when(accountDao.findById(eq(fromAccountId))).thenReturn(Optional.of(fromAccount));
-        when(accountDao.findById(eq(toAccountId))).thenReturn(Optional.of(toAccount));
-        when(userDao.findById(user.getId())).thenReturn(Optional.of(user));
         when(accountDao.updateBalanceWithVersion(fromAccountId, amount, 1)).thenReturn(1);
-        doNothing().when(debtRestructuringService).restructureDebt();
-
-        assertDoesNotThrow(() -> accountTransactionalService.deposit(fromAccountId, amount, "deposit"));
+        doNothing().when(debtRestructuringScheduler).markDirty(anyCollection());
+        TransferResult settlement = new TransferResult(fromAccountId, toAccountId, amount, BigDecimal.ZERO, BigDecimal.ZERO, 3, false, "bob");
+        when(self.performDebtSettlementWithTransaction(fromAccountId, amount)).thenReturn(List.of(settlement));
+
+        DepositResult depositResult = assertDoesNotThrow(() -> accountTransactionalService.deposit(fromAccountId, amount, "deposit"));
+        assertEquals(List.of(settlement), depositResult.debtSettlements());
+        assertEquals(BigDecimal.ZERO, depositResult.balance());
+        assertEquals(3, depositResult.versionId());
         verify(accountDao, times(1)).updateBalanceWithVersion(eq(fromAccountId), eq(amount), eq(1));
+        verify(transactionJournal).recordTransfer(fromAccountId, toAccountId, amount, "debt settlement");
+        verify(debtRestructuringScheduler, times(1)).markDirty(anyCollection());
     }
 
     @Test
@@ -121,6 +160,55 @@ class AccountTransactionalServiceImplTest {
 
         assertThrows(DepositOperationException.class, () -> accountTransactionalService.deposit(fromAccountId, amount, "deposit"));
         verify(accountDao, times(1)).updateBalanceWithVersion(eq(fromAccountId), eq(amount), eq(1));
+        verifyNoInteractions(transactionJournal);
+    }
+
+    @Test
+    void testDeposit_conflictIsRetriedOnFreshAccount() throws InvalidAccountException {
+        ReflectionTestUtils.setField(accountTransactionalService, "versionConflictRetrier",
+                new VersionConflictRetrierImpl(new ContentionMetricsImpl(), 3, 0, 0, 1_000));
+        BigDecimal amount = BigDecimal.valueOf(123);
+        Account updatedAccount = Account.builder()
+                .accountId(fromAccountId)
+                .balance(BigDecimal.TEN)
+                .accountStatus(AccountStatus.AVAILABLE)
+                .versionId(2)
+                .build();
+        when(accountDao.findById(eq(fromAccountId))).thenReturn(Optional.of(fromAccount), Optional.of(updatedAccount));
+        when(accountDao.updateBalanceWithVersion(fromAccountId, amount, 1)).thenReturn(0);
+        when(accountDao.updateBalanceWithVersion(fromAccountId, BigDecimal.valueOf(133), 2)).thenReturn(1);
+        when(debtBalanceDao.findByFromAccountIdAndDebtStatus(fromAccountId, DebtStatus.PENDING)).thenReturn(Collections.emptyList());
+        doNothing().when(debtRestructuringScheduler).markDirty(anyCollection());
+
+        assertDoesNotThrow(() -> accountTransactionalService.deposit(fromAccountId, amount, "deposit"));
+        verify(accountDao, times(2)).findById(eq(fromAccountId));
+        verify(transactionJournal, times(1)).recordDeposit(fromAccountId, amount, "deposit");
+    }
+
+    @Test
+    void testDeposit_deltaMode_singleStatement() {
+        ReflectionTestUtils.setField(accountTransactionalService, "updateMode", AccountUpdateMode.DELTA);
+        BigDecimal amount = BigDecimal.valueOf(123);
+        when(accountDao.addToBalance(fromAccountId, amount)).thenReturn(Optional.of(balanceUpdate(amount, 2)));
+        when(debtBalanceDao.findByFromAccountIdAndDebtStatus(fromAccountId, DebtStatus.PENDING)).thenReturn(Collections.emptyList());
+        doNothing().when(debtRestructuringScheduler).markDirty(anyCollection());
+
+        DepositResult depositResult = assertDoesNotThrow(() -> accountTransactionalService.deposit(fromAccountId, amount, "deposit"));
+        assertEquals(amount, depositResult.balance());
+        assertEquals(2, depositResult.versionId());
+        verify(accountDao, never()).findById(anyLong());
+        verify(accountDao, never()).updateBalanceWithVersion(anyLong(), any(BigDecimal.class), anyInt());
+        verify(transactionJournal).recordDeposit(fromAccountId, amount, "deposit");
+    }
+
+    @Test
+    void testDeposit_deltaMode_unavailableAccount() {
+        ReflectionTestUtils.setField(accountTransactionalService, "updateMode", AccountUpdateMode.DELTA);
+        BigDecimal amount = BigDecimal.valueOf(123);
+        when(accountDao.addToBalance(fromAccountId, amount)).thenReturn(Optional.empty());
+
+        assertThrows(DepositOperationException.class, () -> accountTransactionalService.deposit(fromAccountId, amount, "deposit"));
+        verifyNoInteractions(transactionJournal);
     }
 
     @Test
@@ -154,12 +242,13 @@ class AccountTransactionalServiceImplTest {
         BigDecimal currentBalance = BigDecimal.valueOf(1000);
         fromAccount.setBalance(currentBalance);
         when(accountDao.findById(eq(fromAccountId))).thenReturn(Optional.of(fromAccount));
-        doNothing().when(debtRestructuringService).restructureDebt();
+        doNothing().when(debtRestructuringScheduler).markDirty(anyCollection());
         BigDecimal amount = BigDecimal.valueOf(123);
         when(accountDao.updateBalanceWithVersion(fromAccountId, currentBalance.subtract(amount), 1)).thenReturn(1);
 
         assertDoesNotThrow(() -> accountTransactionalService.withdraw(fromAccountId, amount, "withdraw"));
         verify(accountDao, times(1)).updateBalanceWithVersion(eq(fromAccountId), eq(currentBalance.subtract(amount)), eq(1));
+        verify(transactionJournal).recordWithdraw(fromAccountId, amount, "withdraw");
     }
 
     @Test
@@ -185,6 +274,31 @@ class AccountTransactionalServiceImplTest {
         verify(accountDao, times(0)).updateBalanceWithVersion(anyLong(), any(BigDecimal.class), anyInt());
     }
 
+    @Test
+    void testWithdraw_deltaMode_singleStatement() {
+        ReflectionTestUtils.setField(accountTransactionalService, "updateMode", AccountUpdateMode.DELTA);
+        BigDecimal amount = BigDecimal.valueOf(123);
+        when(accountDao.subtractFromBalance(fromAccountId, amount)).thenReturn(Optional.of(balanceUpdate(BigDecimal.ONE, 2)));
+        doNothing().when(debtRestructuringScheduler).markDirty(anyCollection());
+
+        WithdrawResult withdrawResult = assertDoesNotThrow(() -> accountTransactionalService.withdraw(fromAccountId, amount, "withdraw"));
+        assertEquals(BigDecimal.ONE, withdrawResult.balance());
+        verify(accountDao, never()).findById(anyLong());
+        verify(transactionJournal).recordWithdraw(fromAccountId, amount, "withdraw");
+    }
+
+    @Test
+    void testWithdraw_deltaMode_insufficientBalance() {
+        ReflectionTestUtils.setField(accountTransactionalService, "updateMode", AccountUpdateMode.DELTA);
+        BigDecimal amount = BigDecimal.valueOf(123);
+        when(accountDao.subtractFromBalance(fromAccountId, amount)).thenReturn(Optional.empty());
+        when(accountDao.findById(eq(fromAccountId))).thenReturn(Optional.of(fromAccount));
+
+        WithdrawOperationException ex = assertThrows(WithdrawOperationException.class, () -> accountTransactionalService.withdraw(fromAccountId, amount, "withdraw"));
+        assertEquals("Insufficient balance", ex.getMessage());
+        verifyNoInteractions(transactionJournal);
+    }
+
     @Test
     void testWithdraw_invalidAccountId() throws InvalidAccountException {
         BigDecimal amount = BigDecimal.valueOf(123);
@@ -218,11 +332,15 @@ class AccountTransactionalServiceImplTest {
         when(accountDao.findById(eq(toAccountId))).thenReturn(Optional.of(toAccount));
         BigDecimal transferAmount = BigDecimal.valueOf(123);
         DebtBalance debtBalance = DebtBalance.buildDebtBalanceObject(fromAccountId, toAccountId, transferAmount);
-        when(debtBalanceDao.findByFromAccountIdAndToAccountId(toAccountId, fromAccountId)).thenReturn(Collections.singletonList(debtBalance));
-        doNothing().when(debtRestructuringService).restructureDebt();
+        when(debtBalanceDao.findByFromAccountIdAndToAccountIdAndDebtStatus(toAccountId, fromAccountId, DebtStatus.PENDING)).thenReturn(Collections.singletonList(debtBalance));
+        doNothing().when(debtRestructuringScheduler).markDirty(anyCollection());
 
-        assertDoesNotThrow(() -> accountTransactionalService.transfer(fromAccountId, toAccountId, transferAmount, "transfer"));
+        TransferResult transferResult = assertDoesNotThrow(() -> accountTransactionalService.transfer(fromAccountId, toAccountId, transferAmount, "transfer"));
+        assertTrue(transferResult.offsetAgainstDebt());
+        assertEquals(transferAmount, transferResult.debtAmount());
+        verify(debtLedger).recordDebt(fromAccountId, toAccountId, transferAmount);
         verify(self, times(0)).performTransferOperationWithTransaction(fromAccount, toAccount, transferAmount, "");
+        verifyNoInteractions(transactionJournal);
     }
 
     @Test
@@ -230,12 +348,16 @@ class AccountTransactionalServiceImplTest {
         when(accountDao.findById(eq(fromAccountId))).thenReturn(Optional.of(fromAccount));
         when(accountDao.findById(eq(toAccountId))).thenReturn(Optional.of(toAccount));
         BigDecimal transferAmount = BigDecimal.valueOf(123);
-        when(debtBalanceDao.findByFromAccountIdAndToAccountId(toAccountId, fromAccountId)).thenReturn(Collections.emptyList());
-        when(userDao.findById(user.getId())).thenReturn(Optional.of(user));
-        doNothing().when(debtRestructuringService).restructureDebt();
+        when(debtBalanceDao.findByFromAccountIdAndToAccountIdAndDebtStatus(toAccountId, fromAccountId, DebtStatus.PENDING)).thenReturn(Collections.emptyList());
+        when(self.performTransferOperationWithTransaction(fromAccount, toAccount, transferAmount, "transfer")).thenReturn(
+                new TransferResult(fromAccountId, toAccountId, transferAmount, BigDecimal.ZERO, BigDecimal.ZERO, 2, false, null));
+        doNothing().when(debtRestructuringScheduler).markDirty(anyCollection());
 
         assertDoesNotThrow(() -> accountTransactionalService.transfer(fromAccountId, toAccountId, transferAmount, "transfer"));
         verify(self, times(1)).performTransferOperationWithTransaction(fromAccount, toAccount, transferAmount, "transfer");
+        verify(transactionJournal).recordTransfer(fromAccountId, toAccountId, transferAmount, "transfer");
+        verify(accountLockManager).lock(fromAccountId, toAccountId);
+        assertEquals(2, accountLockManager.getLockWaitStats().acquisitions());
     }
 
     @Test
@@ -245,12 +367,27 @@ class AccountTransactionalServiceImplTest {
         when(accountDao.updateBalanceWithVersion(eq(toAccountId), eq(amount), anyInt())).thenReturn(1);
         fromAccount.setBalance(BigDecimal.valueOf(123));
 
-        BigDecimal balancedAmount = accountTransactionalService.performTransferOperationWithTransaction(fromAccount, toAccount, amount, "transfer");
+        TransferResult transferResult = accountTransactionalService.performTransferOperationWithTransaction(fromAccount, toAccount, amount, "transfer");
 
-        assertEquals(BigDecimal.valueOf(100), balancedAmount);
+        assertEquals(BigDecimal.valueOf(100), transferResult.transferredAmount());
+        assertEquals(BigDecimal.valueOf(23), transferResult.fromBalance());
+        assertEquals(2, transferResult.fromVersionId());
         verify(accountDao, times(1)).updateBalanceWithVersion(fromAccountId, BigDecimal.valueOf(23), 1);
         verify(accountDao, times(1)).updateBalanceWithVersion(toAccountId, BigDecimal.valueOf(100), 1);
-        verify(self).addDebtIfNeeded(fromAccount, toAccount, BigDecimal.valueOf(0));
+        verify(debtLedger).recordDebt(fromAccountId, toAccountId, BigDecimal.valueOf(0));
+        verifyNoInteractions(transactionJournal);
+    }
+
+    @Test
+    void performTransferOperationWithTransaction_deltaMode_creditLegIsDelta() throws TransferOperationException {
+        ReflectionTestUtils.setField(accountTransactionalService, "updateMode", AccountUpdateMode.DELTA);
+        BigDecimal amount = BigDecimal.valueOf(100);
+        when(accountDao.updateBalanceWithVersion(eq(fromAccountId), eq(BigDecimal.valueOf(23)), anyInt())).thenReturn(1);
+        when(accountDao.addToBalance(toAccountId, amount)).thenReturn(Optional.of(balanceUpdate(amount, 2)));
+        fromAccount.setBalance(BigDecimal.valueOf(123));
+
+        assertEquals(amount, accountTransactionalService.performTransferOperationWithTransaction(fromAccount, toAccount, amount, "transfer").transferredAmount());
+        verify(accountDao, never()).updateBalanceWithVersion(eq(toAccountId), any(BigDecimal.class), anyInt());
     }
 
     @Test
@@ -258,7 +395,7 @@ class AccountTransactionalServiceImplTest {
         BigDecimal amount = BigDecimal.valueOf(100);
         when(accountDao.updateBalanceWithVersion(eq(fromAccountId), any(BigDecimal.class), anyInt())).thenReturn(0);
 
-        assertThrows(TransferOperationException.class,
+        assertThrows(VersionConflictException.class,
                 () -> accountTransactionalService.performTransferOperationWithTransaction(fromAccount, toAccount, amount, "transfer"));
         verify(accountDao, times(1)).updateBalanceWithVersion(fromAccountId, BigDecimal.valueOf(0), 1);
         verify(accountDao, never()).updateBalanceWithVersion(eq(toAccountId), any(BigDecimal.class), anyInt());
@@ -272,10 +409,101 @@ class AccountTransactionalServiceImplTest {
         fromAccount.setBalance(BigDecimal.valueOf(123));
 
 
-        assertThrows(TransferOperationException.class,
+        assertThrows(VersionConflictException.class,
                 () -> accountTransactionalService.performTransferOperationWithTransaction(fromAccount, toAccount, amount, "transfer"));
         verify(accountDao, times(1)).updateBalanceWithVersion(fromAccountId, BigDecimal.valueOf(23), 1);
         verify(accountDao, times(1)).updateBalanceWithVersion(toAccountId, BigDecimal.valueOf(100), 1);
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTransferBatch_invalidCommandsFailAlone() {
+        TransferCommand valid = new TransferCommand(fromAccountId, toAccountId, BigDecimal.TEN, "batch");
+        TransferCommand sameAccount = new TransferCommand(fromAccountId, fromAccountId, BigDecimal.TEN, "batch");
+        TransferCommand negativeAmount = new TransferCommand(fromAccountId, toAccountId, BigDecimal.ONE.negate(), "batch");
+        when(self.performTransferBatchWithTransaction(List.of(valid)))
+                .thenReturn(List.of(TransferCommandResult.succeeded(valid, BigDecimal.TEN, BigDecimal.ZERO)));
+        doNothing().when(debtRestructuringScheduler).markDirty(anyCollection());
+
+        List<TransferCommandResult> results = accountTransactionalService.transferBatch(List.of(sameAccount, valid, negativeAmount));
+
+        assertEquals(List.of(false, true, false), results.stream().map(TransferCommandResult::isSuccess).toList());
+        verify(transactionJournal).recordTransfer(fromAccountId, toAccountId, BigDecimal.TEN, "batch");
+        verify(debtRestructuringScheduler, times(1)).markDirty(Set.of(fromAccountId, toAccountId));
+    }
+
+    @Test
+    void performTransferBatchWithTransaction_balancesAreAppliedInOrder() {
+        Long thirdAccountId = 333L;
+        fromAccount.setBalance(BigDecimal.valueOf(100));
+        TransferCommand first = new TransferCommand(fromAccountId, toAccountId, BigDecimal.valueOf(60), "batch");
+        TransferCommand second = new TransferCommand(fromAccountId, toAccountId, BigDecimal.valueOf(60), "batch");
+        TransferCommand third = new TransferCommand(toAccountId, fromAccountId, BigDecimal.valueOf(5), "batch");
+        TransferCommand unknown = new TransferCommand(fromAccountId, thirdAccountId, BigDecimal.ONE, "batch");
+        when(accountDao.findAllById(anyIterable())).thenReturn(List.of(fromAccount, toAccount));
+        when(debtBalanceDao.findPendingByAccountIdInForUpdate(anyCollection())).thenReturn(Collections.emptyList());
+
+        List<TransferCommandResult> results = accountTransactionalService.performTransferBatchWithTransaction(List.of(first, second, third, unknown));
+
+        assertEquals(TransferCommandResult.succeeded(first, BigDecimal.valueOf(60), BigDecimal.ZERO), results.get(0));
+        assertEquals(TransferCommandResult.succeeded(second, BigDecimal.valueOf(40), BigDecimal.valueOf(20)), results.get(1));
+        assertEquals(TransferCommandResult.succeeded(third, BigDecimal.ZERO, BigDecimal.valueOf(5)), results.get(2));
+        assertFalse(results.get(3).isSuccess());
+        assertEquals(0, BigDecimal.ZERO.compareTo(fromAccount.getBalance()));
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(toAccount.getBalance()));
+        verify(accountDao).flush();
+        // the 20 owed for the second transfer is netted with the 5 owed back for the third
+        verify(debtBalanceDao).saveAll(argThat((Collection<DebtBalance> debts) -> debts.size() == 1
+                && debts.iterator().next().getFromAccountId().equals(fromAccountId)
+                && debts.iterator().next().getOutStandingBalance().compareTo(BigDecimal.valueOf(-15)) == 0));
+        verify(accountDao, never()).updateBalanceWithVersion(anyLong(), any(BigDecimal.class), anyInt());
+    }
+
+    @Test
+    void performDebtSettlementWithTransaction_oldestDebtsArePaidFirst() {
+        Long thirdAccountId = 333L;
+        Account thirdAccount = Account.builder()
+                .accountId(thirdAccountId)
+                .balance(BigDecimal.ZERO)
+                .accountStatus(AccountStatus.AVAILABLE)
+                .versionId(1)
+                .build();
+        fromAccount.setBalance(BigDecimal.valueOf(100));
+        DebtBalance firstDebt = DebtBalance.buildDebtBalanceObject(fromAccountId, toAccountId, BigDecimal.valueOf(60));
+        DebtBalance secondDebt = DebtBalance.buildDebtBalanceObject(fromAccountId, thirdAccountId, BigDecimal.valueOf(70));
+        DebtBalance owedToDepositor = DebtBalance.buildDebtBalanceObject(444L, fromAccountId, BigDecimal.TEN);
+        when(debtBalanceDao.findPendingByAccountIdInForUpdate(List.of(fromAccountId))).thenReturn(List.of(firstDebt, owedToDepositor, secondDebt));
+        when(accountDao.findAllWithUserByAccountIdIn(Set.of(fromAccountId, toAccountId, thirdAccountId))).thenReturn(List.of(
+                new AccountWithUser(fromAccount, User.builder().name("alice").build()),
+                new AccountWithUser(toAccount, User.builder().name("bob").build()),
+                new AccountWithUser(thirdAccount, User.builder().name("carol").build())));
+
+        List<TransferResult> settlements = accountTransactionalService.performDebtSettlementWithTransaction(fromAccountId, BigDecimal.valueOf(100));
+
+        assertEquals(List.of(
+                new TransferResult(fromAccountId, toAccountId, BigDecimal.valueOf(60), BigDecimal.ZERO, BigDecimal.valueOf(40), 1, false, "bob"),
+                new TransferResult(fromAccountId, thirdAccountId, BigDecimal.valueOf(40), BigDecimal.ZERO, BigDecimal.ZERO, 1, false, "carol")), settlements);
+        assertEquals(0, BigDecimal.valueOf(60).compareTo(toAccount.getBalance()));
+        assertEquals(0, BigDecimal.valueOf(40).compareTo(thirdAccount.getBalance()));
+        assertEquals(DebtStatus.CLEARED, firstDebt.getDebtStatus());
+        assertEquals(0, BigDecimal.valueOf(-30).compareTo(secondDebt.getOutStandingBalance()));
+        assertEquals(0, BigDecimal.valueOf(-10).compareTo(owedToDepositor.getOutStandingBalance()));
+        verify(accountDao, times(1)).flush();
+        verify(debtBalanceDao).saveAll(List.of(firstDebt, secondDebt));
+        verify(accountDao, never()).updateBalanceWithVersion(anyLong(), any(BigDecimal.class), anyInt());
+    }
+
+    private static AccountBalanceUpdate balanceUpdate(BigDecimal balance, Integer versionId) {
+        return new AccountBalanceUpdate() {
+            @Override
+            public BigDecimal getBalance() {
+                return balance;
+            }
+
+            @Override
+            public Integer getVersionId() {
+                return versionId;
+            }
+        };
+    }
+}
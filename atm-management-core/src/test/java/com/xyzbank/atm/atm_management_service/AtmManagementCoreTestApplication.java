@@ -0,0 +1,10 @@
+package com.xyzbank.atm.atm_management_service;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Configuration root for the repository tests, which run against an embedded H2 database.
+ */
+@SpringBootApplication
+public class AtmManagementCoreTestApplication {
+}
@@ -0,0 +1,90 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.dao.TransactionDao;
+import com.xyzbank.atm.atm_management_service.service.impl.BufferedTransactionJournal;
+import com.xyzbank.atm.atm_management_service.transaction.Transaction;
+import com.xyzbank.atm.atm_management_service.transaction.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BufferedTransactionJournalTest {
+
+    @Mock
+    private TransactionDao transactionDao;
+
+    @Test
+    void testFlush_entriesAreWrittenInOneBatch() {
+        List<Transaction> written = new ArrayList<>();
+        when(transactionDao.saveAll(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Transaction> batch = invocation.getArgument(0);
+            batch.forEach(written::add);
+            return batch;
+        });
+        BufferedTransactionJournal journal = new BufferedTransactionJournal(transactionDao, 100, 60_000);
+        try {
+            journal.recordDeposit(1L, BigDecimal.TEN, "deposit");
+            journal.recordTransfer(1L, 2L, BigDecimal.ONE, "transfer");
+            verifyNoInteractions(transactionDao);
+
+            journal.flush();
+
+            verify(transactionDao, times(1)).saveAll(anyIterable());
+            assertEquals(3, written.size());
+            assertEquals(TransactionType.CREDIT, written.get(0).getTransactionType());
+            assertEquals(TransactionType.DEBIT, written.get(1).getTransactionType());
+            assertEquals(TransactionType.CREDIT, written.get(2).getTransactionType());
+            assertEquals(2L, written.get(2).getToAccountId());
+        } finally {
+            journal.destroy();
+        }
+    }
+
+    @Test
+    void testRecord_fullBatchIsWrittenWithoutFlush() {
+        BufferedTransactionJournal journal = new BufferedTransactionJournal(transactionDao, 2, 60_000);
+        try {
+            journal.recordWithdraw(1L, BigDecimal.ONE, "withdraw");
+            journal.recordWithdraw(1L, BigDecimal.ONE, "withdraw");
+
+            verify(transactionDao, timeout(5_000)).saveAll(argThat((List<Transaction> batch) -> batch.size() == 2));
+        } finally {
+            journal.destroy();
+        }
+    }
+
+    @Test
+    void testFlush_failedBatchIsWrittenEntryByEntry() {
+        when(transactionDao.saveAll(anyIterable())).thenThrow(new RuntimeException());
+        when(transactionDao.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            if (transaction.getTransactionType() == TransactionType.DEBIT) throw new RuntimeException();
+            return transaction;
+        });
+        BufferedTransactionJournal journal = new BufferedTransactionJournal(transactionDao, 100, 60_000);
+        try {
+            journal.recordTransfer(1L, 2L, BigDecimal.ONE, "transfer");
+            journal.flush();
+            journal.recordDeposit(1L, BigDecimal.TEN, "deposit");
+            journal.flush();
+
+            // the entry that failed on its own is dropped, not written again with the next batch
+            verify(transactionDao).saveAll(argThat((List<Transaction> batch) -> batch.size() == 2));
+            verify(transactionDao).saveAll(argThat((List<Transaction> batch) -> batch.size() == 1));
+            verify(transactionDao, times(1)).save(argThat(transaction -> transaction.getTransactionType() == TransactionType.DEBIT));
+            verify(transactionDao, times(2)).save(argThat(transaction -> transaction.getTransactionType() == TransactionType.CREDIT));
+        } finally {
+            journal.destroy();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.account.Account;
+import com.xyzbank.atm.atm_management_service.account.AccountStatus;
+import com.xyzbank.atm.atm_management_service.dao.*;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalanceHistory;
+import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
+import com.xyzbank.atm.atm_management_service.transaction.Transaction;
+import com.xyzbank.atm.atm_management_service.transaction.TransactionType;
+import com.xyzbank.atm.atm_management_service.user.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every DAO query against a populated H2 database and checks with {@code EXPLAIN} that each table it reads is
+ * accessed through an index condition. The statistics are refreshed with {@code ANALYZE}, which commits, so the test
+ * data is committed and removed after each test.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.xyzbank.atm.atm_management_service.DaoQueryPlanTest$RecordingStatementInspector")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DaoQueryPlanTest {
+
+    private static final int ACCOUNTS = 50;
+
+    // a table read without an index condition: "/* PUBLIC.T.tableScan */" or a full index walk "/* PUBLIC.IDX */"
+    private static final Pattern SCAN = Pattern.compile("/\\* PUBLIC\\.[A-Z0-9_]+(\\.tableScan)? \\*/");
+
+    private static final Pattern DATA_CHANGE_DELTA_TABLE = Pattern.compile("FINAL TABLE \\((.*)\\)", Pattern.DOTALL);
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private AccountDao accountDao;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private DebtBalanceDao debtBalanceDao;
+
+    @Autowired
+    private DebtBalanceHistoryDao debtBalanceHistoryDao;
+
+    @Autowired
+    private TransactionDao transactionDao;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> accountIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        List<DebtBalance> debtBalances = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>();
+        for (int idx = 0; idx < ACCOUNTS; idx++) {
+            User user = userDao.save(User.builder().name("user" + idx).build());
+            accountIds.add(accountDao.save(Account.builder()
+                    .balance(BigDecimal.TEN)
+                    .currency("USD")
+                    .createdDate(LocalDateTime.now())
+                    .updatedDate(LocalDateTime.now())
+                    .userId(user.getId())
+                    .accountStatus(AccountStatus.AVAILABLE)
+                    .build()).getAccountId());
+        }
+        for (int idx = 0; idx < ACCOUNTS * 10; idx++) {
+            Long fromAccountId = accountIds.get(idx % ACCOUNTS);
+            Long toAccountId = accountIds.get((idx * 7 + 1) % ACCOUNTS);
+            DebtBalance debtBalance = DebtBalance.buildDebtBalanceObject(fromAccountId, toAccountId, BigDecimal.ONE);
+            if (idx % 10 == 0) debtBalance.clear();
+            debtBalances.add(debtBalance);
+            transactions.add(Transaction.buildTransactionObject(fromAccountId, toAccountId, BigDecimal.ONE, TransactionType.DEBIT, ""));
+            transactions.add(Transaction.buildTransactionObject(fromAccountId, toAccountId, BigDecimal.ONE, TransactionType.CREDIT, ""));
+        }
+        debtBalanceDao.saveAll(debtBalances);
+        debtBalanceHistoryDao.saveAll(debtBalances.stream()
+                .map(debtBalance -> DebtBalanceHistory.buildDebtBalanceHistoryObject(debtBalance, LocalDateTime.now()))
+                .toList());
+        transactionDao.saveAll(transactions);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionDao.deleteAllInBatch();
+        debtBalanceHistoryDao.deleteAllInBatch();
+        debtBalanceDao.deleteAllInBatch();
+        accountDao.deleteAllInBatch();
+        userDao.deleteAllInBatch();
+    }
+
+    @Test
+    void testAccountDao_everyQueryIsIndexed() {
+        Long accountId = accountIds.get(0);
+
+        assertIndexed(() -> accountDao.findByUserId(1L));
+        assertIndexed(() -> accountDao.findWithUserByUserName("user0"));
+        assertIndexed(() -> accountDao.findBalanceViewByUserName("user0"));
+        assertIndexed(() -> accountDao.findAllWithUserByAccountIdIn(Set.of(accountId, accountIds.get(1))));
+        assertIndexed(() -> accountDao.updateBalanceWithVersion(accountId, BigDecimal.ONE, -1));
+        assertIndexed(() -> accountDao.addToBalance(accountId, BigDecimal.ONE));
+        assertIndexed(() -> accountDao.subtractFromBalance(accountId, BigDecimal.ONE));
+        assertIndexed(() -> accountDao.updateAccountStatus(accountId, AccountStatus.LOCKED, -1));
+    }
+
+    @Test
+    void testUserDao_everyQueryIsIndexed() {
+        assertIndexed(() -> userDao.findByName("user0"));
+    }
+
+    @Test
+    void testDebtBalanceDao_everyQueryIsIndexed() {
+        Long accountId = accountIds.get(0);
+        Long otherAccountId = accountIds.get(1);
+
+        assertIndexed(() -> debtBalanceDao.findByDebtStatus(DebtStatus.CLEARED));
+        assertIndexed(() -> debtBalanceDao.countByDebtStatus(DebtStatus.PENDING));
+        assertIndexed(() -> debtBalanceDao.findByDebtStatusOrderByDebtId(DebtStatus.CLEARED, Limit.of(10)));
+        assertIndexed(() -> debtBalanceDao.findByFromAccountIdAndToAccountIdAndDebtStatus(accountId, otherAccountId, DebtStatus.PENDING));
+        assertIndexed(() -> debtBalanceDao.findByFromAccountIdAndDebtStatus(accountId, DebtStatus.PENDING));
+        assertIndexed(() -> debtBalanceDao.findDebtDetailsByAccountId(accountId));
+        assertIndexed(() -> debtBalanceDao.findByDebtStatusAndAccountIdIn(DebtStatus.PENDING, Set.of(accountId, otherAccountId)));
+        assertIndexed(() -> debtBalanceDao.findPendingByAccountPairForUpdate(accountId, otherAccountId));
+        assertIndexed(() -> debtBalanceDao.findPendingByAccountIdInForUpdate(Set.of(accountId, otherAccountId)));
+        assertIndexed(() -> debtBalanceDao.findPendingByAccountIdInForUpdateNowait(Set.of(accountId, otherAccountId)));
+        assertIndexed(() -> debtBalanceDao.findPendingForUpdateNowait());
+    }
+
+    @Test
+    void testDebtBalanceHistoryDao_everyQueryIsIndexed() {
+        assertIndexed(() -> debtBalanceHistoryDao.findByAccountId(accountIds.get(0)));
+    }
+
+    @Test
+    void testTransactionDao_everyQueryIsIndexed() {
+        Long accountId = accountIds.get(0);
+
+        assertIndexed(() -> transactionDao.findByAccountId(accountId));
+        assertIndexed(() -> transactionDao.findPageByAccountId(accountId, 0L, null, null, Limit.of(10)));
+        assertIndexed(() -> {
+            try (Stream<Transaction> transactions = transactionDao.streamByAccountId(accountId)) {
+                assertTrue(transactions.findAny().isPresent());
+            }
+        });
+    }
+
+    /**
+     * Runs the DAO call in a transaction, which the locking and streaming queries need, then explains every statement it sent and fails if one of them reads a table without an
+     * index condition.
+     */
+    private void assertIndexed(Runnable daoCall) {
+        RecordingStatementInspector.statements.clear();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> daoCall.run());
+        List<String> statements = List.copyOf(RecordingStatementInspector.statements);
+        assertFalse(statements.isEmpty());
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertFalse(SCAN.matcher(plan).find(), () -> "table scan in plan: " + plan);
+        }
+    }
+
+    private String explain(String sql) {
+        // H2 plans the update inside a data change delta table, but only shows it when explained on its own
+        Matcher deltaTable = DATA_CHANGE_DELTA_TABLE.matcher(sql);
+        String explainedSql = deltaTable.find() ? deltaTable.group(1) : sql;
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = dataSource.getConnection();
+             ResultSet resultSet = connection.prepareStatement("EXPLAIN " + explainedSql).executeQuery()) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1));
+            }
+        } catch (SQLException ex) {
+            fail("EXPLAIN failed for: " + explainedSql, ex);
+        }
+        return plan.toString();
+    }
+}
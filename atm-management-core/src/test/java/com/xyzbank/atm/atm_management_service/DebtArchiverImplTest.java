@@ -0,0 +1,81 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
+import com.xyzbank.atm.atm_management_service.dao.DebtBalanceHistoryDao;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalanceHistory;
+import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
+import com.xyzbank.atm.atm_management_service.service.DebtArchiver;
+import com.xyzbank.atm.atm_management_service.service.impl.DebtArchiverImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the archiver works on its own thread, so the test data is committed instead of rolled back
+@DataJpaTest(properties = {
+        "atm.debt.archive.batch-size=2",
+        "atm.debt.archive.interval-ms=600000"
+})
+@Import(DebtArchiverImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DebtArchiverImplTest {
+
+    @Autowired
+    private DebtArchiver debtArchiver;
+
+    @Autowired
+    private DebtBalanceDao debtBalanceDao;
+
+    @Autowired
+    private DebtBalanceHistoryDao debtBalanceHistoryDao;
+
+    @AfterEach
+    void tearDown() {
+        debtBalanceDao.deleteAllInBatch();
+        debtBalanceHistoryDao.deleteAllInBatch();
+    }
+
+    @Test
+    void testArchiveClearedDebts_onlyPendingDebtsStayLive() {
+        List<DebtBalance> debtBalances = new ArrayList<>();
+        for (long idx = 0; idx < 5; idx++) {
+            DebtBalance clearedDebt = DebtBalance.buildDebtBalanceObject(1L, idx + 2, BigDecimal.TEN);
+            clearedDebt.clear();
+            debtBalances.add(clearedDebt);
+        }
+        debtBalances.add(DebtBalance.buildDebtBalanceObject(1L, 2L, BigDecimal.ONE));
+        debtBalanceDao.saveAllAndFlush(debtBalances);
+
+        int archived = debtArchiver.archiveClearedDebts();
+
+        assertEquals(5, archived);
+        List<DebtBalance> liveDebts = debtBalanceDao.findAll();
+        assertEquals(1, liveDebts.size());
+        assertEquals(DebtStatus.PENDING, liveDebts.get(0).getDebtStatus());
+        List<DebtBalanceHistory> history = debtBalanceHistoryDao.findByAccountId(3L);
+        assertEquals(1, history.size());
+        assertEquals(1L, history.get(0).getFromAccountId());
+        assertEquals(0, BigDecimal.TEN.negate().compareTo(history.get(0).getOutStandingBalance()));
+        assertNotNull(history.get(0).getClearedDate());
+        assertEquals(5, debtBalanceHistoryDao.findByAccountId(1L).size());
+    }
+
+    @Test
+    void testArchiveClearedDebts_nothingToArchive() {
+        debtBalanceDao.saveAndFlush(DebtBalance.buildDebtBalanceObject(1L, 2L, BigDecimal.ONE));
+
+        assertEquals(0, debtArchiver.archiveClearedDebts());
+        assertEquals(1, debtBalanceDao.count());
+        assertEquals(0, debtBalanceHistoryDao.count());
+    }
+}
@@ -0,0 +1,129 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.account.Account;
+import com.xyzbank.atm.atm_management_service.account.AccountStatus;
+import com.xyzbank.atm.atm_management_service.dao.AccountDao;
+import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
+import com.xyzbank.atm.atm_management_service.dao.UserDao;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.model.DebtDetail;
+import com.xyzbank.atm.atm_management_service.user.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+class DebtBalanceDaoTest {
+
+    @Autowired
+    private DebtBalanceDao debtBalanceDao;
+
+    @Autowired
+    private AccountDao accountDao;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testSaveAndDelete_debtGraphIsWrittenInBatches() {
+        List<DebtBalance> debtBalances = new ArrayList<>();
+        for (long idx = 0; idx < 1_000; idx++) {
+            debtBalances.add(DebtBalance.buildDebtBalanceObject(idx, idx + 1, BigDecimal.TEN));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<DebtBalance> savedDebtBalances = debtBalanceDao.saveAllAndFlush(debtBalances);
+        long insertStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        debtBalanceDao.deleteAllByIdInBatch(savedDebtBalances.stream().map(DebtBalance::getDebtId).toList());
+        long deleteStatements = statistics.getPrepareStatementCount();
+
+        // one insert prepared once and reused by its 20 batches, instead of 1000, plus one sequence call per block of
+        // 50 ids and the initial one
+        assertEquals(1 + (1_000 / 50 + 1), insertStatements);
+        assertEquals(1, deleteStatements);
+        assertEquals(0, debtBalanceDao.count());
+    }
+
+    @Test
+    void testFindDebtDetailsByAccountId_namesAreResolvedInOneQuery() {
+        Long aliceAccountId = createAccount("alice");
+        List<DebtBalance> debtBalances = new ArrayList<>();
+        for (int idx = 0; idx < 20; idx++) {
+            Long counterpartyAccountId = createAccount("user" + idx);
+            debtBalances.add(idx % 2 == 0
+                    ? DebtBalance.buildDebtBalanceObject(aliceAccountId, counterpartyAccountId, BigDecimal.TEN)
+                    : DebtBalance.buildDebtBalanceObject(counterpartyAccountId, aliceAccountId, BigDecimal.ONE));
+        }
+        debtBalanceDao.saveAllAndFlush(debtBalances);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<DebtDetail> debtDetails = debtBalanceDao.findDebtDetailsByAccountId(aliceAccountId);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(20, debtDetails.size());
+        assertEquals("alice", debtDetails.get(0).fromUserName());
+        assertEquals("user0", debtDetails.get(0).toUserName());
+        assertEquals("user1", debtDetails.get(1).fromUserName());
+        assertEquals("alice", debtDetails.get(1).toUserName());
+    }
+
+    @Test
+    void testFindDebtDetailsByAccountId_clearedDebtsAreSkipped() {
+        Long aliceAccountId = createAccount("alice");
+        Long bobAccountId = createAccount("bob");
+        DebtBalance clearedDebt = DebtBalance.buildDebtBalanceObject(aliceAccountId, bobAccountId, BigDecimal.TEN);
+        clearedDebt.clear();
+        debtBalanceDao.saveAllAndFlush(List.of(clearedDebt, DebtBalance.buildDebtBalanceObject(bobAccountId, aliceAccountId, BigDecimal.ONE)));
+
+        List<DebtDetail> debtDetails = debtBalanceDao.findDebtDetailsByAccountId(aliceAccountId);
+
+        assertEquals(1, debtDetails.size());
+        assertEquals("bob", debtDetails.get(0).fromUserName());
+    }
+
+    @Test
+    void testFindPendingByAccountPairForUpdate_bothDirections() {
+        debtBalanceDao.saveAllAndFlush(List.of(
+                DebtBalance.buildDebtBalanceObject(1L, 2L, BigDecimal.TEN),
+                DebtBalance.buildDebtBalanceObject(2L, 1L, BigDecimal.ONE),
+                DebtBalance.buildDebtBalanceObject(1L, 3L, BigDecimal.ONE)));
+
+        List<DebtBalance> pairDebts = debtBalanceDao.findPendingByAccountPairForUpdate(2L, 1L);
+
+        assertEquals(2, pairDebts.size());
+        assertEquals(2L, pairDebts.get(1).getFromAccountId());
+    }
+
+    private Long createAccount(String name) {
+        User user = userDao.saveAndFlush(User.builder().name(name).build());
+        Account account = Account.builder()
+                .balance(BigDecimal.ZERO)
+                .currency("USD")
+                .createdDate(LocalDateTime.now())
+                .updatedDate(LocalDateTime.now())
+                .userId(user.getId())
+                .accountStatus(AccountStatus.AVAILABLE)
+                .build();
+        return accountDao.saveAndFlush(account).getAccountId();
+    }
+}
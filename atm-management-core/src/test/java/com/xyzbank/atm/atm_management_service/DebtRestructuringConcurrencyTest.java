@@ -0,0 +1,138 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
+import com.xyzbank.atm.atm_management_service.service.DebtLedger;
+import com.xyzbank.atm.atm_management_service.service.DebtRestructuringService;
+import com.xyzbank.atm.atm_management_service.service.impl.DebtRestructuringSchedulerImpl;
+import com.xyzbank.atm.atm_management_service.service.impl.DebtRestructuringServiceImpl;
+import com.xyzbank.atm.atm_management_service.service.impl.DebtSettlementEngineImpl;
+import com.xyzbank.atm.atm_management_service.service.impl.NettingDebtLedger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the pass and the money operation run in transactions of their own on two threads, so the test data is committed
+@DataJpaTest
+@Import({DebtRestructuringServiceImpl.class, DebtSettlementEngineImpl.class, NettingDebtLedger.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DebtRestructuringConcurrencyTest {
+
+    @Autowired
+    private DebtRestructuringService debtRestructuringService;
+
+    @Autowired
+    private DebtLedger debtLedger;
+
+    @Autowired
+    private DebtBalanceDao debtBalanceDao;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+        debtBalanceDao.deleteAllInBatch();
+    }
+
+    @Test
+    void testRestructureDebt_debtLockedByMoneyOperationDefersPass() throws Exception {
+        debtBalanceDao.saveAllAndFlush(List.of(
+                DebtBalance.buildDebtBalanceObject(1L, 2L, BigDecimal.TEN),
+                DebtBalance.buildDebtBalanceObject(2L, 3L, BigDecimal.TEN)));
+
+        // 2 pays its debt to 1 off with a debt the other way; a pass meanwhile fails at once instead of waiting on it
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            debtLedger.recordDebt(2L, 1L, BigDecimal.TEN);
+            Future<?> pass = executorService.submit(() -> debtRestructuringService.restructureDebt(List.of(1L, 3L)));
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> pass.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(PessimisticLockingFailureException.class, ex.getCause());
+        });
+        debtRestructuringService.restructureDebt(List.of(1L, 3L));
+
+        List<DebtBalance> pendingDebts = debtBalanceDao.findByDebtStatus(DebtStatus.PENDING);
+        assertEquals(1, pendingDebts.size(), pendingDebts.toString());
+        assertEquals(2L, pendingDebts.get(0).getFromAccountId());
+        assertEquals(3L, pendingDebts.get(0).getToAccountId());
+        assertEquals(0, BigDecimal.TEN.negate().compareTo(pendingDebts.get(0).getOutStandingBalance()));
+    }
+
+    @Test
+    void testMarkDirty_synchronousPassOnLockedDebtIsDeferred() throws Exception {
+        DebtRestructuringSchedulerImpl scheduler = new DebtRestructuringSchedulerImpl(debtRestructuringService, false, 200);
+        debtBalanceDao.saveAllAndFlush(List.of(
+                DebtBalance.buildDebtBalanceObject(1L, 2L, BigDecimal.TEN),
+                DebtBalance.buildDebtBalanceObject(2L, 3L, BigDecimal.TEN)));
+
+        // the committed operation that notifies the scheduler must not fail because another one holds a debt
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            debtLedger.recordDebt(2L, 1L, BigDecimal.TEN);
+            Future<?> notification = executorService.submit(() -> scheduler.markDirty(List.of(1L, 3L)));
+            assertDoesNotThrow(() -> notification.get(10, TimeUnit.SECONDS));
+        });
+        scheduler.flush();
+
+        List<DebtBalance> pendingDebts = debtBalanceDao.findByDebtStatus(DebtStatus.PENDING);
+        assertEquals(1, pendingDebts.size(), pendingDebts.toString());
+        assertEquals(2L, pendingDebts.get(0).getFromAccountId());
+        assertEquals(3L, pendingDebts.get(0).getToAccountId());
+    }
+
+    @Test
+    void testRestructureDebt_debtsRecordedDuringPassesAreKept() throws Exception {
+        Map<Long, BigDecimal> expectedNetBalances = new HashMap<>();
+        Future<?> passes = executorService.submit(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    debtRestructuringService.restructureDebt(List.of(1L, 2L, 3L, 4L, 5L, 6L));
+                } catch (PessimisticLockingFailureException ex) {
+                    // the scheduler runs a pass that met a locked debt again later
+                }
+            }
+        });
+        Random random = new Random(7);
+        for (int idx = 0; idx < 300; idx++) {
+            long debtorAccountId = random.nextInt(6) + 1;
+            long creditorAccountId = (debtorAccountId + random.nextInt(5)) % 6 + 1;
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(20) + 1);
+            debtLedger.recordDebt(debtorAccountId, creditorAccountId, amount);
+            expectedNetBalances.merge(debtorAccountId, amount.negate(), BigDecimal::add);
+            expectedNetBalances.merge(creditorAccountId, amount, BigDecimal::add);
+        }
+        passes.cancel(true);
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        // the last pass folds a pair debt written twice, by the ledger and a pass at the same time, back into one
+        debtRestructuringService.restructureDebt(List.of(1L, 2L, 3L, 4L, 5L, 6L));
+
+        Map<Long, BigDecimal> netBalances = new HashMap<>();
+        Set<Set<Long>> pairs = new HashSet<>();
+        for (DebtBalance debt : debtBalanceDao.findByDebtStatus(DebtStatus.PENDING)) {
+            netBalances.merge(debt.getFromAccountId(), debt.getOutStandingBalance(), BigDecimal::add);
+            netBalances.merge(debt.getToAccountId(), debt.getOutStandingBalance().negate(), BigDecimal::add);
+            assertTrue(pairs.add(Set.of(debt.getFromAccountId(), debt.getToAccountId())), "two pending debts between " + debt.getFromAccountId() + " and " + debt.getToAccountId());
+        }
+        for (long accountId = 1; accountId <= 6; accountId++) {
+            assertEquals(0, expectedNetBalances.getOrDefault(accountId, BigDecimal.ZERO).compareTo(netBalances.getOrDefault(accountId, BigDecimal.ZERO)),
+                    "net balance of account " + accountId);
+        }
+    }
+
+}
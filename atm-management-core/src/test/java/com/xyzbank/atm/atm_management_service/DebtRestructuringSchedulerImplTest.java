@@ -0,0 +1,104 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.service.DebtRestructuringService;
+import com.xyzbank.atm.atm_management_service.service.impl.DebtRestructuringSchedulerImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DebtRestructuringSchedulerImplTest {
+
+    @Mock
+    private DebtRestructuringService debtRestructuringService;
+
+    @Test
+    void testMarkDirty_burstIsCoalescedIntoOnePass() {
+        DebtRestructuringSchedulerImpl scheduler = new DebtRestructuringSchedulerImpl(debtRestructuringService, true, 60_000);
+        try {
+            scheduler.markDirty(List.of(1L));
+            scheduler.markDirty(List.of(2L, 3L));
+            scheduler.markDirty(List.of(1L));
+            verifyNoInteractions(debtRestructuringService);
+
+            scheduler.flush();
+
+            verify(debtRestructuringService, times(1)).restructureDebt(argThat((Collection<Long> ids) -> new HashSet<>(ids).equals(Set.of(1L, 2L, 3L))));
+        } finally {
+            scheduler.destroy();
+        }
+    }
+
+    @Test
+    void testMarkDirty_passRunsAfterMaxDelay() {
+        DebtRestructuringSchedulerImpl scheduler = new DebtRestructuringSchedulerImpl(debtRestructuringService, true, 10);
+        try {
+            scheduler.markDirty(List.of(1L));
+
+            verify(debtRestructuringService, timeout(5_000)).restructureDebt(List.of(1L));
+        } finally {
+            scheduler.destroy();
+        }
+    }
+
+    @Test
+    void testFlush_lockedPassIsRetried() {
+        DebtRestructuringSchedulerImpl scheduler = new DebtRestructuringSchedulerImpl(debtRestructuringService, true, 60_000);
+        doThrow(new PessimisticLockingFailureException("locked")).doNothing().when(debtRestructuringService).restructureDebt(anyCollection());
+        try {
+            scheduler.markDirty(List.of(1L));
+            scheduler.flush();
+            scheduler.flush();
+
+            verify(debtRestructuringService, times(2)).restructureDebt(List.of(1L));
+        } finally {
+            scheduler.destroy();
+        }
+    }
+
+    @Test
+    void testFlush_failedPassIsDropped() {
+        DebtRestructuringSchedulerImpl scheduler = new DebtRestructuringSchedulerImpl(debtRestructuringService, true, 60_000);
+        doThrow(new IllegalStateException()).when(debtRestructuringService).restructureDebt(anyCollection());
+        try {
+            scheduler.markDirty(List.of(1L));
+            scheduler.flush();
+            scheduler.flush();
+
+            verify(debtRestructuringService, times(1)).restructureDebt(List.of(1L));
+        } finally {
+            scheduler.destroy();
+        }
+    }
+
+    @Test
+    void testMarkDirty_synchronousMode() {
+        DebtRestructuringSchedulerImpl scheduler = new DebtRestructuringSchedulerImpl(debtRestructuringService, false, 60_000);
+
+        scheduler.markDirty(List.of(1L));
+
+        verify(debtRestructuringService).restructureDebt(List.of(1L));
+    }
+
+    @Test
+    void testMarkDirty_synchronousModeKeepsLockedAccountsForNextPass() {
+        DebtRestructuringSchedulerImpl scheduler = new DebtRestructuringSchedulerImpl(debtRestructuringService, false, 60_000);
+        doThrow(new PessimisticLockingFailureException("locked")).doNothing().when(debtRestructuringService).restructureDebt(anyCollection());
+
+        scheduler.markDirty(List.of(1L));
+        scheduler.markDirty(List.of(2L));
+
+        verify(debtRestructuringService).restructureDebt(List.of(1L));
+        verify(debtRestructuringService).restructureDebt(argThat((Collection<Long> ids) -> new HashSet<>(ids).equals(Set.of(1L, 2L))));
+    }
+}
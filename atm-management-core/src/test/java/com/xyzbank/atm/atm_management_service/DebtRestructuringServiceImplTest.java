@@ -0,0 +1,103 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
+import com.xyzbank.atm.atm_management_service.service.DebtSettlementEngine;
+import com.xyzbank.atm.atm_management_service.service.impl.DebtRestructuringServiceImpl;
+import com.xyzbank.atm.atm_management_service.service.impl.DebtSettlementEngineImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DebtRestructuringServiceImplTest {
+
+    @Mock
+    private DebtBalanceDao debtBalanceDao;
+
+    @Spy
+    private DebtSettlementEngine debtSettlementEngine = new DebtSettlementEngineImpl(12, 50);
+
+    @InjectMocks
+    private DebtRestructuringServiceImpl debtRestructuringService;
+
+    @Test
+    void testRestructureDebt_onlyConnectedGroupIsRewritten() {
+        DebtBalance firstDebt = debt(10L, 1L, 2L, BigDecimal.TEN);
+        DebtBalance secondDebt = debt(11L, 2L, 3L, BigDecimal.TEN);
+        when(debtBalanceDao.findPendingByAccountIdInForUpdateNowait(Set.of(1L))).thenReturn(List.of(firstDebt));
+        when(debtBalanceDao.findPendingByAccountIdInForUpdateNowait(Set.of(2L))).thenReturn(List.of(firstDebt, secondDebt));
+        when(debtBalanceDao.findPendingByAccountIdInForUpdateNowait(Set.of(3L))).thenReturn(List.of(secondDebt));
+
+        debtRestructuringService.restructureDebt(List.of(1L));
+
+        verify(debtSettlementEngine).settle(List.of(firstDebt, secondDebt));
+        verify(debtBalanceDao).saveAllAndFlush(List.of(firstDebt, secondDebt));
+        assertEquals(DebtStatus.CLEARED, firstDebt.getDebtStatus());
+        assertEquals(DebtStatus.CLEARED, secondDebt.getDebtStatus());
+        verify(debtBalanceDao).saveAllAndFlush(argThat(debts -> {
+            DebtBalance debt = debts.iterator().next();
+            return debt.getFromAccountId() == 1L && debt.getToAccountId() == 3L;
+        }));
+        verify(debtBalanceDao, never()).findPendingForUpdateNowait();
+    }
+
+    @Test
+    void testRestructureDebt_debtAddedMeanwhileIsNettedIn() {
+        DebtBalance firstDebt = debt(10L, 1L, 2L, BigDecimal.TEN);
+        DebtBalance secondDebt = debt(11L, 2L, 3L, BigDecimal.TEN);
+        DebtBalance newDebt = debt(12L, 1L, 3L, BigDecimal.valueOf(5));
+        when(debtBalanceDao.findPendingByAccountIdInForUpdateNowait(Set.of(1L))).thenReturn(List.of(firstDebt));
+        when(debtBalanceDao.findPendingByAccountIdInForUpdateNowait(Set.of(2L))).thenReturn(List.of(firstDebt, secondDebt));
+        when(debtBalanceDao.findPendingByAccountIdInForUpdateNowait(Set.of(3L))).thenReturn(List.of(secondDebt));
+        when(debtBalanceDao.findPendingByAccountIdInForUpdateNowait(Set.of(1L, 3L))).thenReturn(List.of(newDebt));
+
+        debtRestructuringService.restructureDebt(List.of(1L));
+
+        verify(debtBalanceDao).saveAllAndFlush(List.of(newDebt));
+        assertEquals(DebtStatus.PENDING, newDebt.getDebtStatus());
+        assertEquals(0, BigDecimal.valueOf(-15).compareTo(newDebt.getOutStandingBalance()));
+    }
+
+    @Test
+    void testRestructureDebt_noDebtsForTouchedAccounts() {
+        when(debtBalanceDao.findPendingByAccountIdInForUpdateNowait(Set.of(1L, 2L))).thenReturn(Collections.emptyList());
+
+        debtRestructuringService.restructureDebt(List.of(1L, 2L));
+
+        verifyNoInteractions(debtSettlementEngine);
+        verify(debtBalanceDao, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void testRestructureDebt_alreadySettledGroupIsNotRewritten() {
+        DebtBalance debt = debt(10L, 1L, 2L, BigDecimal.TEN);
+        when(debtBalanceDao.findPendingByAccountIdInForUpdateNowait(Set.of(1L))).thenReturn(List.of(debt));
+        when(debtBalanceDao.findPendingByAccountIdInForUpdateNowait(Set.of(2L))).thenReturn(List.of(debt));
+
+        debtRestructuringService.restructureDebt(List.of(1L));
+
+        verify(debtBalanceDao, never()).saveAll(anyIterable());
+        verify(debtBalanceDao, never()).saveAllAndFlush(anyIterable());
+        assertEquals(DebtStatus.PENDING, debt.getDebtStatus());
+    }
+
+    private static DebtBalance debt(Long debtId, Long fromAccountId, Long toAccountId, BigDecimal amount) {
+        DebtBalance debtBalance = DebtBalance.buildDebtBalanceObject(fromAccountId, toAccountId, amount);
+        debtBalance.setDebtId(debtId);
+        return debtBalance;
+    }
+}
@@ -0,0 +1,122 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.model.SettlementEdge;
+import com.xyzbank.atm.atm_management_service.service.impl.DebtSettlementEngineImpl;
+import com.xyzbank.atm.atm_management_service.service.impl.ExactDebtSettlementSolver;
+import com.xyzbank.atm.atm_management_service.service.impl.GreedyDebtSettlementSolver;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DebtSettlementEngineImplTest {
+
+    private final GreedyDebtSettlementSolver greedySolver = new GreedyDebtSettlementSolver();
+
+    private final ExactDebtSettlementSolver exactSolver = new ExactDebtSettlementSolver(TimeUnit.SECONDS.toNanos(5));
+
+    @Test
+    void testSettle_chainIsCollapsed() {
+        DebtSettlementEngineImpl engine = new DebtSettlementEngineImpl(12, 50);
+        List<DebtBalance> debts = List.of(
+                DebtBalance.buildDebtBalanceObject(1L, 2L, BigDecimal.TEN),
+                DebtBalance.buildDebtBalanceObject(2L, 3L, BigDecimal.TEN));
+
+        List<SettlementEdge> result = engine.settle(debts);
+
+        assertEquals(List.of(new SettlementEdge(1L, 3L, BigDecimal.TEN)), result);
+    }
+
+    @Test
+    void testSettle_independentGroupsAreSettledSeparately() {
+        DebtSettlementEngineImpl engine = new DebtSettlementEngineImpl(12, 50);
+        List<DebtBalance> debts = List.of(
+                DebtBalance.buildDebtBalanceObject(1L, 2L, BigDecimal.valueOf(5)),
+                DebtBalance.buildDebtBalanceObject(3L, 4L, BigDecimal.valueOf(7)),
+                DebtBalance.buildDebtBalanceObject(4L, 3L, BigDecimal.valueOf(7)));
+
+        List<SettlementEdge> result = engine.settle(debts);
+
+        assertEquals(List.of(new SettlementEdge(1L, 2L, BigDecimal.valueOf(5))), result);
+    }
+
+    @Test
+    void testSettle_largeGroupFallsBackToGreedy() {
+        DebtSettlementEngineImpl engine = new DebtSettlementEngineImpl(2, 50);
+        Map<Long, BigDecimal> netBalances = balances(9, -8, 6, -2, 3, 4, -12);
+        List<DebtBalance> debts = new ArrayList<>();
+        greedySolver.solve(netBalances).forEach(e -> debts.add(DebtBalance.buildDebtBalanceObject(e.fromAccountId(), e.toAccountId(), e.amount())));
+
+        List<SettlementEdge> result = engine.settle(debts);
+
+        assertSettles(netBalances, result);
+        assertEquals(6, result.size());
+    }
+
+    @Test
+    void testExactSolver_beatsGreedy() {
+        Map<Long, BigDecimal> netBalances = balances(9, -8, 6, -2, 3, 4, -12);
+
+        List<SettlementEdge> greedyResult = greedySolver.solve(netBalances);
+        List<SettlementEdge> exactResult = exactSolver.solve(netBalances);
+
+        assertSettles(netBalances, greedyResult);
+        assertSettles(netBalances, exactResult);
+        assertEquals(6, greedyResult.size());
+        assertEquals(5, exactResult.size());
+    }
+
+    @Test
+    void testExactSolver_expiredDeadlineReturnsGreedyResult() {
+        Map<Long, BigDecimal> netBalances = balances(9, -8, 6, -2, 3, 4, -12);
+
+        List<SettlementEdge> result = exactSolver.solve(netBalances, System.nanoTime() - 1);
+
+        assertSettles(netBalances, result);
+        assertTrue(result.size() <= greedySolver.solve(netBalances).size());
+    }
+
+    @Test
+    void testSolvers_randomBalancesAreSettled() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int[] amounts = new int[2 + random.nextInt(7)];
+            int sum = 0;
+            for (int idx = 0; idx < amounts.length - 1; idx++) {
+                amounts[idx] = random.nextInt(41) - 20;
+                sum += amounts[idx];
+            }
+            amounts[amounts.length - 1] = -sum;
+            Map<Long, BigDecimal> netBalances = balances(amounts);
+
+            List<SettlementEdge> greedyResult = greedySolver.solve(netBalances);
+            List<SettlementEdge> exactResult = exactSolver.solve(netBalances);
+
+            assertSettles(netBalances, greedyResult);
+            assertSettles(netBalances, exactResult);
+            assertTrue(exactResult.size() <= greedyResult.size());
+        }
+    }
+
+    private static Map<Long, BigDecimal> balances(int... amounts) {
+        Map<Long, BigDecimal> netBalances = new LinkedHashMap<>();
+        for (int idx = 0; idx < amounts.length; idx++) {
+            netBalances.put(idx + 1L, BigDecimal.valueOf(amounts[idx]));
+        }
+        return netBalances;
+    }
+
+    private static void assertSettles(Map<Long, BigDecimal> netBalances, List<SettlementEdge> settlementEdges) {
+        Map<Long, BigDecimal> remaining = new HashMap<>(netBalances);
+        settlementEdges.forEach(e -> {
+            assertTrue(e.amount().signum() > 0);
+            remaining.merge(e.fromAccountId(), e.amount().negate(), BigDecimal::add);
+            remaining.merge(e.toAccountId(), e.amount(), BigDecimal::add);
+        });
+        remaining.values().forEach(balance -> assertEquals(0, balance.signum()));
+    }
+}
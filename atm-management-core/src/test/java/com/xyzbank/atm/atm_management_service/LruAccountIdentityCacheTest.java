@@ -0,0 +1,50 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.model.AccountIdentity;
+import com.xyzbank.atm.atm_management_service.model.IdentityCacheStats;
+import com.xyzbank.atm.atm_management_service.service.impl.LruAccountIdentityCache;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruAccountIdentityCacheTest {
+
+    @Test
+    void testPut_leastRecentlyUsedEntryIsEvicted() {
+        LruAccountIdentityCache cache = new LruAccountIdentityCache(2);
+        cache.put("alice", new AccountIdentity(1L, 11L));
+        cache.put("bob", new AccountIdentity(2L, 12L));
+        cache.get("alice");
+
+        cache.put("carol", new AccountIdentity(3L, 13L));
+
+        assertTrue(cache.get("alice").isPresent());
+        assertTrue(cache.get("bob").isEmpty());
+        assertEquals(3L, cache.get("carol").orElseThrow().accountId());
+        IdentityCacheStats stats = cache.getStats();
+        assertEquals(3, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.evictions());
+        assertEquals(2, stats.size());
+    }
+
+    @Test
+    void testInvalidate_entryIsRemoved() {
+        LruAccountIdentityCache cache = new LruAccountIdentityCache(2);
+        cache.put("alice", new AccountIdentity(1L, 11L));
+
+        cache.invalidate("alice");
+
+        assertTrue(cache.get("alice").isEmpty());
+        assertEquals(0, cache.getStats().size());
+    }
+
+    @Test
+    void testPut_zeroMaxSizeDisablesTheCache() {
+        LruAccountIdentityCache cache = new LruAccountIdentityCache(0);
+        cache.put("alice", new AccountIdentity(1L, 11L));
+
+        assertTrue(cache.get("alice").isEmpty());
+        assertEquals(0, cache.getStats().evictions());
+    }
+}
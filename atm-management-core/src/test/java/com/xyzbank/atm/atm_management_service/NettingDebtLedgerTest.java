@@ -0,0 +1,106 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
+import com.xyzbank.atm.atm_management_service.service.impl.NettingDebtLedger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NettingDebtLedgerTest {
+
+    private static final Long aliceAccountId = 1L;
+
+    private static final Long bobAccountId = 2L;
+
+    @Mock
+    private DebtBalanceDao debtBalanceDao;
+
+    @InjectMocks
+    private NettingDebtLedger debtLedger;
+
+    @Test
+    void testRecordDebt_firstDebtOfThePairIsInserted() {
+        when(debtBalanceDao.findPendingByAccountPairForUpdate(aliceAccountId, bobAccountId)).thenReturn(Collections.emptyList());
+
+        debtLedger.recordDebt(aliceAccountId, bobAccountId, BigDecimal.TEN);
+
+        verify(debtBalanceDao).save(argThat(debt -> debt.getFromAccountId().equals(aliceAccountId)
+                && debt.getOutStandingBalance().compareTo(BigDecimal.TEN.negate()) == 0));
+    }
+
+    @Test
+    void testRecordDebt_sameDirectionIsAddedToTheRow() {
+        DebtBalance pairDebt = debt(aliceAccountId, bobAccountId, 10);
+        when(debtBalanceDao.findPendingByAccountPairForUpdate(aliceAccountId, bobAccountId)).thenReturn(List.of(pairDebt));
+
+        debtLedger.recordDebt(aliceAccountId, bobAccountId, BigDecimal.valueOf(5));
+
+        verify(debtBalanceDao).save(pairDebt);
+        assertEquals(0, BigDecimal.valueOf(-15).compareTo(pairDebt.getOutStandingBalance()));
+    }
+
+    @Test
+    void testRecordDebt_largerOppositeDebtTurnsTheRowAround() {
+        DebtBalance pairDebt = debt(bobAccountId, aliceAccountId, 10);
+        when(debtBalanceDao.findPendingByAccountPairForUpdate(aliceAccountId, bobAccountId)).thenReturn(List.of(pairDebt));
+
+        debtLedger.recordDebt(aliceAccountId, bobAccountId, BigDecimal.valueOf(25));
+
+        verify(debtBalanceDao).save(pairDebt);
+        assertEquals(aliceAccountId, pairDebt.getFromAccountId());
+        assertEquals(bobAccountId, pairDebt.getToAccountId());
+        assertEquals(0, BigDecimal.valueOf(-15).compareTo(pairDebt.getOutStandingBalance()));
+    }
+
+    @Test
+    void testRecordDebt_evenPairIsCleared() {
+        DebtBalance pairDebt = debt(bobAccountId, aliceAccountId, 10);
+        when(debtBalanceDao.findPendingByAccountPairForUpdate(aliceAccountId, bobAccountId)).thenReturn(List.of(pairDebt));
+
+        debtLedger.recordDebt(aliceAccountId, bobAccountId, BigDecimal.TEN);
+
+        verify(debtBalanceDao).save(pairDebt);
+        assertEquals(DebtStatus.CLEARED, pairDebt.getDebtStatus());
+    }
+
+    @Test
+    void testRecordDebt_duplicateRowsAreFolded() {
+        DebtBalance pairDebt = debt(aliceAccountId, bobAccountId, 10);
+        DebtBalance duplicate = debt(bobAccountId, aliceAccountId, 4);
+        when(debtBalanceDao.findPendingByAccountPairForUpdate(aliceAccountId, bobAccountId))
+                .thenReturn(new ArrayList<>(List.of(pairDebt, duplicate)));
+
+        debtLedger.recordDebt(aliceAccountId, bobAccountId, BigDecimal.ONE);
+
+        verify(debtBalanceDao).saveAll(List.of(duplicate));
+        verify(debtBalanceDao).save(pairDebt);
+        assertEquals(DebtStatus.CLEARED, duplicate.getDebtStatus());
+        assertEquals(DebtStatus.PENDING, pairDebt.getDebtStatus());
+        assertEquals(0, BigDecimal.valueOf(-7).compareTo(pairDebt.getOutStandingBalance()));
+    }
+
+    @Test
+    void testRecordDebt_zeroAmountIsIgnored() {
+        debtLedger.recordDebt(aliceAccountId, bobAccountId, BigDecimal.ZERO);
+
+        verifyNoInteractions(debtBalanceDao);
+    }
+
+    private static DebtBalance debt(Long fromAccountId, Long toAccountId, long amount) {
+        return DebtBalance.buildDebtBalanceObject(fromAccountId, toAccountId, BigDecimal.valueOf(amount));
+    }
+}
@@ -0,0 +1,76 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.model.LockWaitStats;
+import com.xyzbank.atm.atm_management_service.service.AccountConcurrencyMode;
+import com.xyzbank.atm.atm_management_service.service.AccountLockManager;
+import com.xyzbank.atm.atm_management_service.service.impl.StripedAccountLockManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedAccountLockManagerTest {
+
+    @Test
+    void testLock_crossingLocksDoNotDeadlock() throws Exception {
+        StripedAccountLockManager lockManager = new StripedAccountLockManager(AccountConcurrencyMode.STRIPED_LOCK, 16);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> forward = executorService.submit(() -> lockRepeatedly(lockManager, 1L, 2L));
+            Future<?> backward = executorService.submit(() -> lockRepeatedly(lockManager, 2L, 1L));
+
+            forward.get(30, TimeUnit.SECONDS);
+            backward.get(30, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertEquals(20_000, lockManager.getLockWaitStats().acquisitions());
+    }
+
+    @Test
+    void testLock_waitIsMeasured() throws Exception {
+        StripedAccountLockManager lockManager = new StripedAccountLockManager(AccountConcurrencyMode.STRIPED_LOCK, 16);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try (AccountLockManager.Lease lease = lockManager.lock(1L)) {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        holder.start();
+        locked.await();
+
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> lockManager.lock(1L).close());
+        Thread.sleep(50);
+        assertFalse(waiter.isDone());
+        release.countDown();
+        waiter.get(30, TimeUnit.SECONDS);
+        holder.join();
+
+        LockWaitStats stats = lockManager.getLockWaitStats();
+        assertEquals(2, stats.acquisitions());
+        assertEquals(1, stats.contendedAcquisitions());
+        assertTrue(stats.maxWaitNanos() > 0);
+    }
+
+    @Test
+    void testLock_optimisticModeLocksNothing() {
+        StripedAccountLockManager lockManager = new StripedAccountLockManager(AccountConcurrencyMode.OPTIMISTIC, 16);
+
+        lockManager.lock(1L, 2L).close();
+
+        assertEquals(0, lockManager.getLockWaitStats().acquisitions());
+    }
+
+    private static void lockRepeatedly(AccountLockManager lockManager, Long firstAccountId, Long secondAccountId) {
+        for (int idx = 0; idx < 5_000; idx++) {
+            try (AccountLockManager.Lease lease = lockManager.lock(firstAccountId, secondAccountId)) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
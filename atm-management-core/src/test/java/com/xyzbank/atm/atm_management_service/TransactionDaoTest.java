@@ -0,0 +1,76 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.dao.TransactionDao;
+import com.xyzbank.atm.atm_management_service.transaction.Transaction;
+import com.xyzbank.atm.atm_management_service.transaction.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class TransactionDaoTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private TransactionDao transactionDao;
+
+    @BeforeEach
+    void setUp() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int day = 0; day < 10; day++) {
+            transactions.add(entry(1L, 1L, TransactionType.CREDIT, day));
+            transactions.add(entry(2L, 2L, TransactionType.CREDIT, day));
+        }
+        transactions.add(entry(1L, 2L, TransactionType.DEBIT, 10));
+        transactions.add(entry(1L, 2L, TransactionType.CREDIT, 10));
+        transactionDao.saveAllAndFlush(transactions);
+    }
+
+    @Test
+    void testFindPageByAccountId_pagesFollowTheCursor() {
+        List<Transaction> firstPage = transactionDao.findPageByAccountId(1L, 0L, null, null, Limit.of(4));
+        List<Transaction> secondPage = transactionDao.findPageByAccountId(1L, firstPage.get(3).getTransactionId(), null, null, Limit.of(100));
+
+        assertEquals(4, firstPage.size());
+        assertEquals(7, secondPage.size());
+        assertTrue(firstPage.get(3).getTransactionId() < secondPage.get(0).getTransactionId());
+        assertEquals(TransactionType.DEBIT, secondPage.get(6).getTransactionType());
+    }
+
+    @Test
+    void testFindPageByAccountId_dateRange() {
+        List<Transaction> page = transactionDao.findPageByAccountId(1L, 0L, START.plusDays(2), START.plusDays(5), Limit.of(100));
+
+        assertEquals(3, page.size());
+        page.forEach(transaction -> assertEquals(1L, transaction.getToAccountId()));
+    }
+
+    @Test
+    void testStreamByAccountId_onlyEntriesOfTheAccount() {
+        List<Transaction> transactions;
+        try (Stream<Transaction> stream = transactionDao.streamByAccountId(2L)) {
+            transactions = stream.toList();
+        }
+
+        assertEquals(11, transactions.size());
+        assertEquals(TransactionType.CREDIT, transactions.get(10).getTransactionType());
+        assertEquals(1L, transactions.get(10).getFromAccountId());
+    }
+
+    private static Transaction entry(Long fromAccountId, Long toAccountId, TransactionType transactionType, int day) {
+        Transaction transaction = Transaction.buildTransactionObject(fromAccountId, toAccountId, BigDecimal.TEN, transactionType, "");
+        transaction.setTransactionDate(START.plusDays(day));
+        return transaction;
+    }
+}
@@ -0,0 +1,163 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.account.Account;
+import com.xyzbank.atm.atm_management_service.account.AccountStatus;
+import com.xyzbank.atm.atm_management_service.dao.AccountDao;
+import com.xyzbank.atm.atm_management_service.dao.DebtBalanceDao;
+import com.xyzbank.atm.atm_management_service.debt.DebtBalance;
+import com.xyzbank.atm.atm_management_service.debt.DebtStatus;
+import com.xyzbank.atm.atm_management_service.model.TransferCommand;
+import com.xyzbank.atm.atm_management_service.model.TransferCommandResult;
+import com.xyzbank.atm.atm_management_service.service.AccountTransactionalService;
+import com.xyzbank.atm.atm_management_service.service.DebtRestructuringScheduler;
+import com.xyzbank.atm.atm_management_service.service.TransactionJournal;
+import com.xyzbank.atm.atm_management_service.service.impl.AccountTransactionalServiceImpl;
+import com.xyzbank.atm.atm_management_service.service.impl.ContentionMetricsImpl;
+import com.xyzbank.atm.atm_management_service.service.impl.NettingDebtLedger;
+import com.xyzbank.atm.atm_management_service.service.impl.StripedAccountLockManager;
+import com.xyzbank.atm.atm_management_service.service.impl.VersionConflictRetrierImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// the batch commits its own transaction, so the test data is committed instead of rolled back
+@DataJpaTest(properties = "atm.account.update-mode=VERSIONED")
+@Import({AccountTransactionalServiceImpl.class, NettingDebtLedger.class, VersionConflictRetrierImpl.class,
+        ContentionMetricsImpl.class, StripedAccountLockManager.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransferBatchTest {
+
+    @Autowired
+    private AccountTransactionalService accountTransactionalService;
+
+    @Autowired
+    private AccountDao accountDao;
+
+    @Autowired
+    private DebtBalanceDao debtBalanceDao;
+
+    @MockitoBean
+    private TransactionJournal transactionJournal;
+
+    @MockitoBean
+    private DebtRestructuringScheduler debtRestructuringScheduler;
+
+    private Long aliceAccountId;
+
+    private Long bobAccountId;
+
+    private Long carolAccountId;
+
+    @BeforeEach
+    void setUp() {
+        aliceAccountId = saveAccount(1L, BigDecimal.valueOf(100));
+        bobAccountId = saveAccount(2L, BigDecimal.ZERO);
+        carolAccountId = saveAccount(3L, BigDecimal.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountDao.deleteAllInBatch();
+        debtBalanceDao.deleteAllInBatch();
+    }
+
+    @Test
+    void testTransferBatch_balancesAndDebtsAreCommittedBeforeJournaling() {
+        debtBalanceDao.saveAndFlush(DebtBalance.buildDebtBalanceObject(carolAccountId, aliceAccountId, BigDecimal.valueOf(5)));
+        doAnswer(invocation -> {
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            return null;
+        }).when(transactionJournal).recordTransfer(anyLong(), anyLong(), any(BigDecimal.class), anyString());
+        TransferCommand first = new TransferCommand(aliceAccountId, bobAccountId, BigDecimal.valueOf(60), "batch");
+        TransferCommand second = new TransferCommand(aliceAccountId, bobAccountId, BigDecimal.valueOf(60), "batch");
+        TransferCommand owedBack = new TransferCommand(bobAccountId, aliceAccountId, BigDecimal.valueOf(5), "batch");
+        TransferCommand owedByCarol = new TransferCommand(aliceAccountId, carolAccountId, BigDecimal.valueOf(3), "batch");
+        TransferCommand invalid = new TransferCommand(aliceAccountId, bobAccountId, BigDecimal.ZERO, "batch");
+
+        List<TransferCommandResult> results = accountTransactionalService.transferBatch(List.of(first, second, owedBack, owedByCarol, invalid));
+
+        assertSucceeded(results.get(0), first, BigDecimal.valueOf(60), BigDecimal.ZERO);
+        assertSucceeded(results.get(1), second, BigDecimal.valueOf(40), BigDecimal.valueOf(20));
+        assertSucceeded(results.get(2), owedBack, BigDecimal.ZERO, BigDecimal.valueOf(5));
+        assertSucceeded(results.get(3), owedByCarol, BigDecimal.ZERO, BigDecimal.valueOf(3));
+        assertEquals("Invalid Amount", results.get(4).failureReason());
+        // every changed account is written once, by one versioned update
+        assertAccount(aliceAccountId, BigDecimal.ZERO, 1);
+        assertAccount(bobAccountId, BigDecimal.valueOf(100), 1);
+        assertAccount(carolAccountId, BigDecimal.ZERO, 0);
+        List<DebtBalance> pendingDebts = debtBalanceDao.findByDebtStatus(DebtStatus.PENDING);
+        assertEquals(2, pendingDebts.size());
+        assertPendingDebt(aliceAccountId, bobAccountId, BigDecimal.valueOf(15));
+        assertPendingDebt(carolAccountId, aliceAccountId, BigDecimal.valueOf(2));
+        verify(transactionJournal).recordTransfer(eq(aliceAccountId), eq(bobAccountId), amountOf(60), eq("batch"));
+        verify(transactionJournal).recordTransfer(eq(aliceAccountId), eq(bobAccountId), amountOf(40), eq("batch"));
+        verifyNoMoreInteractions(transactionJournal);
+    }
+
+    @Test
+    void testTransferBatch_everyCommandInvalid() {
+        TransferCommand sameAccount = new TransferCommand(aliceAccountId, aliceAccountId, BigDecimal.TEN, "batch");
+        TransferCommand noAccount = new TransferCommand(null, bobAccountId, BigDecimal.TEN, "batch");
+        TransferCommand negativeAmount = new TransferCommand(aliceAccountId, bobAccountId, BigDecimal.valueOf(-1), "batch");
+
+        List<TransferCommandResult> results = accountTransactionalService.transferBatch(List.of(sameAccount, noAccount, negativeAmount));
+
+        assertEquals(List.of(
+                TransferCommandResult.failed(sameAccount, "Invalid account id"),
+                TransferCommandResult.failed(noAccount, "Invalid account id"),
+                TransferCommandResult.failed(negativeAmount, "Invalid Amount")), results);
+        assertAccount(aliceAccountId, BigDecimal.valueOf(100), 0);
+        assertEquals(0, debtBalanceDao.count());
+        verifyNoInteractions(transactionJournal, debtRestructuringScheduler);
+    }
+
+    private Long saveAccount(Long userId, BigDecimal balance) {
+        return accountDao.saveAndFlush(Account.builder()
+                .balance(balance)
+                .currency("USD")
+                .createdDate(LocalDateTime.now())
+                .updatedDate(LocalDateTime.now())
+                .userId(userId)
+                .accountStatus(AccountStatus.AVAILABLE)
+                .build()).getAccountId();
+    }
+
+    private static void assertSucceeded(TransferCommandResult result, TransferCommand command, BigDecimal transferredAmount, BigDecimal debtAmount) {
+        assertTrue(result.isSuccess(), result.failureReason());
+        assertEquals(command, result.command());
+        assertEquals(0, transferredAmount.compareTo(result.transferredAmount()), "transferred amount of " + command);
+        assertEquals(0, debtAmount.compareTo(result.debtAmount()), "debt amount of " + command);
+    }
+
+    // amounts read back from the database carry the scale of the balance column
+    private static BigDecimal amountOf(long amount) {
+        return argThat(value -> value.compareTo(BigDecimal.valueOf(amount)) == 0);
+    }
+
+    private void assertAccount(Long accountId, BigDecimal balance, int versionId) {
+        Account account = accountDao.findById(accountId).orElseThrow();
+        assertEquals(0, balance.compareTo(account.getBalance()), "balance of account " + accountId);
+        assertEquals(versionId, account.getVersionId(), "version of account " + accountId);
+    }
+
+    private void assertPendingDebt(Long fromAccountId, Long toAccountId, BigDecimal amount) {
+        List<DebtBalance> debts = debtBalanceDao.findByFromAccountIdAndToAccountIdAndDebtStatus(fromAccountId, toAccountId, DebtStatus.PENDING);
+        assertEquals(1, debts.size());
+        assertEquals(0, amount.negate().compareTo(debts.get(0).getOutStandingBalance()));
+    }
+}
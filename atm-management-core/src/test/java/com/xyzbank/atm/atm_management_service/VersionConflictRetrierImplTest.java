@@ -0,0 +1,89 @@
+package com.xyzbank.atm.atm_management_service;
+
+import com.xyzbank.atm.atm_management_service.exception.InvalidAccountException;
+import com.xyzbank.atm.atm_management_service.exception.VersionConflictException;
+import com.xyzbank.atm.atm_management_service.model.AccountContention;
+import com.xyzbank.atm.atm_management_service.service.impl.ContentionMetricsImpl;
+import com.xyzbank.atm.atm_management_service.service.impl.VersionConflictRetrierImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionConflictRetrierImplTest {
+
+    private final ContentionMetricsImpl contentionMetrics = new ContentionMetricsImpl();
+
+    @Test
+    void testExecute_conflictIsRetriedUntilSuccess() {
+        VersionConflictRetrierImpl retrier = new VersionConflictRetrierImpl(contentionMetrics, 5, 1, 2, 1_000);
+
+        int result = retrier.execute(attempt -> {
+            if (attempt < 3) throw new VersionConflictException(1L);
+            return attempt;
+        });
+
+        assertEquals(3, result);
+        assertEquals(new AccountContention(1L, 2, 2, 0), contentionMetrics.getContention(1L));
+    }
+
+    @Test
+    void testExecute_attemptsAreLimited() {
+        VersionConflictRetrierImpl retrier = new VersionConflictRetrierImpl(contentionMetrics, 3, 0, 0, 1_000);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(VersionConflictException.class, () -> retrier.execute(attempt -> {
+            attempts.incrementAndGet();
+            throw new VersionConflictException(1L);
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(new AccountContention(1L, 3, 2, 1), contentionMetrics.getContention(1L));
+    }
+
+    @Test
+    void testExecute_totalTimeIsLimited() {
+        VersionConflictRetrierImpl retrier = new VersionConflictRetrierImpl(contentionMetrics, 1_000, 20, 20, 50);
+        AtomicInteger attempts = new AtomicInteger();
+        long startNanos = System.nanoTime();
+
+        assertThrows(VersionConflictException.class, () -> retrier.execute(attempt -> {
+            attempts.incrementAndGet();
+            throw new VersionConflictException(1L);
+        }));
+
+        assertTrue(attempts.get() < 1_000);
+        assertTrue(System.nanoTime() - startNanos < 5_000_000_000L);
+        assertEquals(1, contentionMetrics.getContention(1L).failures());
+    }
+
+    @Test
+    void testExecute_otherExceptionsAreNotRetried() {
+        VersionConflictRetrierImpl retrier = new VersionConflictRetrierImpl(contentionMetrics, 5, 0, 0, 1_000);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(InvalidAccountException.class, () -> retrier.execute(attempt -> {
+            attempts.incrementAndGet();
+            throw new InvalidAccountException();
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(new AccountContention(1L, 0, 0, 0), contentionMetrics.getContention(1L));
+    }
+
+    @Test
+    void testGetHottestAccounts_orderedByConflicts() {
+        contentionMetrics.recordConflict(1L);
+        contentionMetrics.recordConflict(2L);
+        contentionMetrics.recordConflict(2L);
+        contentionMetrics.recordConflict(3L);
+
+        List<AccountContention> hottest = contentionMetrics.getHottestAccounts(2);
+
+        assertEquals(2, hottest.size());
+        assertEquals(2L, hottest.get(0).accountId());
+        assertEquals(2, hottest.get(0).conflicts());
+    }
+}
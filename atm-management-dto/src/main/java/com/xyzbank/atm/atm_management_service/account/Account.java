@@ -1,6 +1,5 @@
 package com.xyzbank.atm.atm_management_service.account;
 
-import com.xyzbank.atm.atm_management_service.transaction.Transaction;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -11,18 +10,20 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.List;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(name = "account", indexes = {
+        @Index(name = "idx_account_user_id", columnList = "user_id")
+})
 @Builder
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = 50)
     @Column(name = "account_id")
     private Long accountId;
 
@@ -40,8 +41,6 @@ public class Account {
     @Column(name = "updated_date", nullable = false)
     private LocalDateTime updatedDate;
 
-//    private List<Transaction> transactions;  //TODO: do jpa binding here
-
     @NotNull
     @Column(name = "user_id", nullable = false)
     private Long userId;
@@ -54,8 +53,4 @@ public class Account {
     @Enumerated(EnumType.STRING)
     @Column(name = "account_status", nullable = false)
     private AccountStatus accountStatus;
-
-    public List<Transaction> getTransactions() { //TODO: remove after doing jpa binding
-        return Collections.emptyList();
-    }
 }
@@ -15,10 +15,16 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Data
 @Entity
+@Table(name = "debt_balance", indexes = {
+        @Index(name = "idx_debt_balance_status", columnList = "debt_status"),
+        @Index(name = "idx_debt_balance_from_to", columnList = "from_account_id, to_account_id"),
+        @Index(name = "idx_debt_balance_to", columnList = "to_account_id")
+})
 public class DebtBalance {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "debt_balance_seq")
+    @SequenceGenerator(name = "debt_balance_seq", sequenceName = "debt_balance_seq", allocationSize = 50)
     @Column(name = "debt_id")
     private Long debtId;
 
@@ -63,4 +69,35 @@ public class DebtBalance {
                 .debtStatus(DebtStatus.PENDING)
                 .build();
     }
+
+    /**
+     * Nets a new debt between the same two accounts into this debt. The debt keeps pointing from the account that
+     * owes to the account that is owed, so it is turned around when the new debt is larger than what was owed the
+     * other way.
+     *
+     * @param debtorAccountId the account that owes the new debt, one of the two accounts of this debt.
+     * @param debtAmount      the amount of the new debt.
+     * @return true if the two accounts no longer owe each other anything.
+     */
+    public boolean netDebt(Long debtorAccountId, BigDecimal debtAmount) {
+        BigDecimal owedAmount = outStandingBalance.negate();
+        BigDecimal netAmount = debtorAccountId.equals(fromAccountId) ? owedAmount.add(debtAmount) : owedAmount.subtract(debtAmount);
+        if (netAmount.signum() < 0) {
+            Long creditorAccountId = fromAccountId;
+            fromAccountId = toAccountId;
+            toAccountId = creditorAccountId;
+            netAmount = netAmount.negate();
+        }
+        outStandingBalance = netAmount.negate();
+        updatedDate = LocalDateTime.now();
+        return netAmount.signum() == 0;
+    }
+
+    /**
+     * Marks this debt as settled. It stays in the table until the archiver moves it to the debt history.
+     */
+    public void clear() {
+        debtStatus = DebtStatus.CLEARED;
+        updatedDate = LocalDateTime.now();
+    }
 }
@@ -0,0 +1,71 @@
+package com.xyzbank.atm.atm_management_service.debt;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "debt_balance_history", indexes = {
+        @Index(name = "idx_debt_history_from_account_id", columnList = "from_account_id"),
+        @Index(name = "idx_debt_history_to_account_id", columnList = "to_account_id")
+})
+public class DebtBalanceHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "debt_balance_history_seq")
+    @SequenceGenerator(name = "debt_balance_history_seq", sequenceName = "debt_balance_history_seq", allocationSize = 50)
+    @Column(name = "history_id")
+    private Long historyId;
+
+    @NotNull
+    @Column(name = "debt_id", nullable = false, updatable = false)
+    private Long debtId;
+
+    @NotNull
+    @Column(name = "from_account_id", nullable = false, updatable = false)
+    private Long fromAccountId;
+
+    @NotNull
+    @Column(name = "to_account_id", nullable = false, updatable = false)
+    private Long toAccountId;
+
+    @NotNull
+    @Column(name = "original_amount", nullable = false, updatable = false)
+    private BigDecimal originalAmount;
+
+    @NotNull
+    @Column(name = "outstanding_balance", nullable = false, updatable = false)
+    private BigDecimal outStandingBalance;
+
+    @Column(name = "created_date", nullable = false, updatable = false)
+    private LocalDateTime createdDate;
+
+    @Column(name = "cleared_date", nullable = false, updatable = false)
+    private LocalDateTime clearedDate;
+
+    @Column(name = "archived_date", nullable = false, updatable = false)
+    private LocalDateTime archivedDate;
+
+    public static DebtBalanceHistory buildDebtBalanceHistoryObject(DebtBalance debtBalance, LocalDateTime archivedDate) {
+        return DebtBalanceHistory.builder()
+                .debtId(debtBalance.getDebtId())
+                .fromAccountId(debtBalance.getFromAccountId())
+                .toAccountId(debtBalance.getToAccountId())
+                .originalAmount(debtBalance.getOriginalAmount())
+                .outStandingBalance(debtBalance.getOutStandingBalance())
+                .createdDate(debtBalance.getCreatedDate())
+                .clearedDate(debtBalance.getUpdatedDate())
+                .archivedDate(archivedDate)
+                .build();
+    }
+}
@@ -1,7 +1,7 @@
 package com.xyzbank.atm.atm_management_service.transaction;
 
 import jakarta.persistence.*;
-import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,37 +10,59 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * Append-only journal entry. A deposit is a CREDIT and a withdrawal a DEBIT with the account on both sides; a
+ * transfer is a DEBIT of the from account plus a CREDIT of the to account, both with the real from and to accounts.
+ */
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
 @Entity
+@Table(name = "account_transaction", indexes = {
+        @Index(name = "idx_transaction_from_account_date", columnList = "from_account_id, transaction_date"),
+        @Index(name = "idx_transaction_to_account_date", columnList = "to_account_id, transaction_date")
+})
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     @Column(name = "transaction_id")
     private Long transactionId;
 
-    @NotEmpty
-    @Column(name = "from_account_id", nullable = false)
+    @NotNull
+    @Column(name = "from_account_id", nullable = false, updatable = false)
     private Long fromAccountId;
 
-    @NotEmpty
-    @Column(name = "to_account_id", nullable = false)
+    @NotNull
+    @Column(name = "to_account_id", nullable = false, updatable = false)
     private Long toAccountId;
 
-    @NotEmpty
-    @Column(name = "amount", nullable = false)
+    @NotNull
+    @Column(name = "amount", nullable = false, updatable = false)
     private BigDecimal amount;
 
-    @NotEmpty
+    @NotNull
     @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false, updatable = false)
     private TransactionType transactionType;
 
-    @Column(name = "transaction_date")
+    @Column(name = "transaction_date", nullable = false, updatable = false)
     private LocalDateTime transactionDate;
 
-    @Column(name = "remarks", length = 255)
+    @Column(name = "remarks", length = 255, updatable = false)
     private String remarks;
+
+    public static Transaction buildTransactionObject(Long fromAccountId, Long toAccountId, BigDecimal amount,
+                                                     TransactionType transactionType, String remarks) {
+        return Transaction.builder()
+                .fromAccountId(fromAccountId)
+                .toAccountId(toAccountId)
+                .amount(amount)
+                .transactionType(transactionType)
+                .transactionDate(LocalDateTime.now())
+                .remarks(remarks)
+                .build();
+    }
 }
@@ -12,11 +12,14 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Data
 @Entity
-@Table(name = "ATM_User")
+@Table(name = "ATM_User", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_atm_user_name", columnNames = "name")
+})
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "atm_user_seq")
+    @SequenceGenerator(name = "atm_user_seq", sequenceName = "atm_user_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 